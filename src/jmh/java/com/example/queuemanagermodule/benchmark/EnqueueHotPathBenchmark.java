@@ -0,0 +1,136 @@
+package com.example.queuemanagermodule.benchmark;
+
+import com.example.queuemanagermodule.config.SliceIdPartitioner;
+import com.example.queuemanagermodule.model.ClusterType;
+import com.example.queuemanagermodule.model.OperationRequest;
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.service.ClaimCheckStore;
+import com.example.queuemanagermodule.service.KafkaProducerService;
+import com.example.queuemanagermodule.service.OperationFactory;
+import com.example.queuemanagermodule.service.PayloadCodec;
+import com.example.queuemanagermodule.service.QueueCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por operación de cada paso del encolado que no depende de la BD ni del
+ * broker: cálculo de prioridad, clave de enrutado, partición, serialización del
+ * QueueItem con el JsonSerializer de Spring Kafka y construcción de la
+ * OperationRequest con su payload. Los logs van a un logger INFO sin appenders
+ * (src/jmh/resources/logback-test.xml), así se mide la llamada pero no la E/S.
+ *
+ * Con bytes asignados por operación (gc.alloc.rate.norm):
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="EnqueueHotPathBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnqueueHotPathBenchmark {
+
+    private static final String TOPIC = "linux-zone1-high";
+
+    @Param({"2", "10", "50"})
+    private int vmCount;
+
+    private OperationFactory operationFactory;
+    private PayloadCodec payloadCodec;
+    private KafkaProducerService kafkaProducerService;
+    private SliceIdPartitioner partitioner;
+    private JsonSerializer<QueueItem> jsonSerializer;
+    private Cluster cluster;
+
+    private Map<String, Object> payload;
+    private QueueItem queueItem;
+    private byte[] keyBytes;
+
+    @Setup
+    public void setUp() {
+        QueueCatalog queueCatalog = new QueueCatalog(new StandardEnvironment(), "LINUX:1",
+                "{cluster}-zone{zone}-{priority}", 8, 4, 2);
+        operationFactory = new OperationFactory(queueCatalog,
+                new ClaimCheckStore(new ObjectMapper(), false, 262144, System.getProperty("java.io.tmpdir")));
+        ReflectionTestUtils.setField(operationFactory, "maxRetryAttempts", 3);
+        payloadCodec = new PayloadCodec(new ObjectMapper());
+        kafkaProducerService = new KafkaProducerService(null, null);
+        partitioner = new SliceIdPartitioner();
+        jsonSerializer = new JsonSerializer<>();
+
+        Node node = new Node(0, "localhost", 9092);
+        Node[] replicas = {node};
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            partitions.add(new PartitionInfo(TOPIC, i, node, replicas, replicas));
+        }
+        cluster = new Cluster("benchmark", List.of(node), partitions, Set.of(), Set.of());
+
+        payload = PayloadCodecBenchmark.SamplePayloads.deploySlice(vmCount);
+        // Sin routingKey, para medir también la extracción desde el payload
+        queueItem = QueueItem.builder()
+                .id(1L)
+                .queueName("LINUX_ZONE1_HIGH")
+                .operationType(OperationType.DEPLOY_SLICE)
+                .clusterType(ClusterType.LINUX)
+                .zoneId(1)
+                .userId(7L)
+                .payload(payload)
+                .priority(Priority.HIGH)
+                .enqueuedAt(LocalDateTime.now())
+                .retryCount(0)
+                .maxRetries(3)
+                .build();
+        keyBytes = kafkaProducerService.extractMessageKey(queueItem).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+    }
+
+    @Benchmark
+    public Priority determinePriority() {
+        return operationFactory.determinePriority(OperationType.DEPLOY_SLICE, ClusterType.LINUX, 7L, payload);
+    }
+
+    @Benchmark
+    public String extractMessageKey() {
+        return kafkaProducerService.extractMessageKey(queueItem);
+    }
+
+    @Benchmark
+    public int partition() {
+        return partitioner.partition(TOPIC, null, keyBytes, queueItem, null, cluster);
+    }
+
+    @Benchmark
+    public byte[] serializeQueueItem() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), queueItem);
+    }
+
+    @Benchmark
+    public OperationRequest buildRequest() throws Exception {
+        OperationRequest request = operationFactory.buildRequest(OperationType.DEPLOY_SLICE, ClusterType.LINUX,
+                1, 7L, Priority.HIGH, "LINUX_ZONE1_HIGH");
+        payloadCodec.writePayload(request, payload);
+        return request;
+    }
+}
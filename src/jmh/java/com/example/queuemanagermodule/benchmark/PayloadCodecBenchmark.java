@@ -0,0 +1,138 @@
+package com.example.queuemanagermodule.benchmark;
+
+import com.example.queuemanagermodule.service.PayloadCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el payload de DEPLOY_SLICE guardado como JSON (payload_json) con el
+ * formato compacto de {@link PayloadCodec} (payload_blob): bytes por fila, que se
+ * imprimen al preparar cada tamaño, y tiempo de codificación/decodificación.
+ *
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="PayloadCodecBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadCodecBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+
+    @Param({"2", "10", "50"})
+    private int vmCount;
+
+    private ObjectMapper objectMapper;
+    private PayloadCodec payloadCodec;
+    private Map<String, Object> payload;
+    private String json;
+    private byte[] blob;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        payloadCodec = new PayloadCodec(objectMapper);
+        payload = SamplePayloads.deploySlice(vmCount);
+        json = objectMapper.writeValueAsString(payload);
+        blob = payloadCodec.encode(payload);
+
+        int jsonBytes = json.getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("%n[vmCount=%d] bytes por fila: json=%d, smile-deflate=%d (%.1f%%)%n",
+                vmCount, jsonBytes, blob.length, 100.0 * blob.length / jsonBytes);
+    }
+
+    @Benchmark
+    public String encodeJson() throws Exception {
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    @Benchmark
+    public byte[] encodeCompact() throws Exception {
+        return payloadCodec.encode(payload);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeJson() throws Exception {
+        return objectMapper.readValue(json, MAP_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeCompact() throws Exception {
+        return payloadCodec.decode(blob);
+    }
+
+    /**
+     * Payloads con la forma que envía el Slice Manager
+     */
+    static final class SamplePayloads {
+
+        private SamplePayloads() {
+        }
+
+        static Map<String, Object> deploySlice(int vmCount) {
+            List<Map<String, Object>> vms = new ArrayList<>();
+            List<Map<String, Object>> links = new ArrayList<>();
+            List<Map<String, Object>> interfaces = new ArrayList<>();
+
+            for (int i = 1; i <= vmCount; i++) {
+                Map<String, Object> vm = new HashMap<>();
+                vm.put("id", i);
+                vm.put("name", "vm-" + i);
+                vm.put("image_id", 3);
+                vm.put("flavor_id", 2);
+                vm.put("physical_server", Map.of("id", 1 + i % 4, "name", "worker" + (1 + i % 4)));
+                vm.put("status", "preparing");
+                vm.put("vnc_display", 10 + i);
+                vms.add(vm);
+
+                for (int j = 0; j < 2; j++) {
+                    Map<String, Object> iface = new HashMap<>();
+                    iface.put("id", i * 10 + j);
+                    iface.put("name", "eth" + j);
+                    iface.put("vm_id", i);
+                    iface.put("link_id", j == 0 ? i : null);
+                    iface.put("mac_address", String.format("fa:16:3e:%02x:%02x:%02x", i & 0xff, j, (i * 7) & 0xff));
+                    iface.put("external_access", j == 1);
+                    iface.put("tap_name", "tap-" + i + "-" + j);
+                    interfaces.add(iface);
+                }
+
+                if (i < vmCount) {
+                    Map<String, Object> link = new HashMap<>();
+                    link.put("id", i);
+                    link.put("name", "link-" + i + "-" + (i + 1));
+                    link.put("source_vm_id", i);
+                    link.put("target_vm_id", i + 1);
+                    link.put("vlan_id", 100 + i);
+                    links.add(link);
+                }
+            }
+
+            Map<String, Object> topology = new HashMap<>();
+            topology.put("vms", vms);
+            topology.put("links", links);
+            topology.put("interfaces", interfaces);
+
+            Map<String, Object> sliceInfo = new HashMap<>();
+            sliceInfo.put("id", 42);
+            sliceInfo.put("name", "slice-benchmark");
+            sliceInfo.put("description", "Slice de prueba para el benchmark de almacenamiento");
+            sliceInfo.put("status", "preparing");
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("slice_info", sliceInfo);
+            payload.put("topology_info", topology);
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.queuemanagermodule.benchmark;
+
+import com.example.queuemanagermodule.config.QueueItemBinarySerializer;
+import com.example.queuemanagermodule.config.QueueItemDeserializer;
+import com.example.queuemanagermodule.model.ClusterType;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.model.QueueItem;
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueueItem en JSON (JsonSerializer de Spring) frente al codec binario, cada uno
+ * con la compresión de Kafka que se aplicaría al lote: JSON+gzip es la
+ * configuración actual. Cada invocación serializa y comprime un lote de
+ * {@link #BATCH} mensajes; los tiempos son por mensaje y el tamaño por mensaje de
+ * cada combinación se imprime al preparar cada tamaño de topología.
+ *
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="QueueItemWireBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueueItemWireBenchmark {
+
+    private static final int BATCH = 16;
+    private static final String TOPIC = "linux-zone1-high";
+
+    @Param({"2", "10", "50"})
+    private int vmCount;
+
+    private JsonSerializer<QueueItem> jsonSerializer;
+    private QueueItemBinarySerializer binarySerializer;
+    private QueueItemDeserializer deserializer;
+    private List<QueueItem> items;
+    private byte[] jsonMessage;
+    private byte[] binaryMessage;
+    private RecordHeaders binaryHeaders;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonSerializer = new JsonSerializer<>();
+        binarySerializer = new QueueItemBinarySerializer();
+        deserializer = new QueueItemDeserializer();
+
+        Map<String, Object> payload = PayloadCodecBenchmark.SamplePayloads.deploySlice(vmCount);
+        items = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            items.add(QueueItem.builder()
+                    .id(1000L + i)
+                    .queueName("LINUX_ZONE1_HIGH")
+                    .operationType(OperationType.DEPLOY_SLICE)
+                    .clusterType(ClusterType.LINUX)
+                    .zoneId(1)
+                    .userId(7L + i)
+                    .payload(payload)
+                    .priority(Priority.HIGH)
+                    .enqueuedAt(LocalDateTime.now())
+                    .status(OperationStatus.PENDING)
+                    .retryCount(0)
+                    .maxRetries(3)
+                    .routingKey("slice-" + (42 + i))
+                    .build());
+        }
+        jsonMessage = jsonSerializer.serialize(TOPIC, new RecordHeaders(), items.get(0));
+        binaryHeaders = new RecordHeaders();
+        binaryMessage = binarySerializer.serialize(TOPIC, binaryHeaders, items.get(0));
+
+        System.out.printf("%n[vmCount=%d] bytes por mensaje: json=%d, json+gzip=%d, binario=%d, binario+lz4=%d%n",
+                vmCount, jsonMessage.length, jsonGzip() / BATCH, binaryMessage.length, binaryLz4() / BATCH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int jsonGzip() throws IOException {
+        return compress(Compression.gzip().build(), true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int binaryLz4() throws IOException {
+        return compress(Compression.lz4().build(), false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int binaryGzip() throws IOException {
+        return compress(Compression.gzip().build(), false);
+    }
+
+    @Benchmark
+    public QueueItem decodeJson() {
+        return deserializer.deserialize(TOPIC, new RecordHeaders(), jsonMessage);
+    }
+
+    @Benchmark
+    public QueueItem decodeBinary() {
+        return deserializer.deserialize(TOPIC, binaryHeaders, binaryMessage);
+    }
+
+    /**
+     * Serializa el lote y lo comprime como lo haría el productor; devuelve los bytes comprimidos
+     */
+    private int compress(Compression compression, boolean json) throws IOException {
+        ByteBufferOutputStream buffer = new ByteBufferOutputStream(64 * 1024);
+        try (OutputStream out = compression.wrapForOutput(buffer, RecordBatch.CURRENT_MAGIC_VALUE)) {
+            for (QueueItem item : items) {
+                RecordHeaders headers = new RecordHeaders();
+                out.write(json
+                        ? jsonSerializer.serialize(TOPIC, headers, item)
+                        : binarySerializer.serialize(TOPIC, headers, item));
+            }
+        }
+        return buffer.position();
+    }
+}
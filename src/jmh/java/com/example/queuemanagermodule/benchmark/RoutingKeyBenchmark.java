@@ -0,0 +1,120 @@
+package com.example.queuemanagermodule.benchmark;
+
+import com.example.queuemanagermodule.config.SliceIdPartitioner;
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.util.RoutingKeys;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por mensaje de la clave y la partición. "legacy" reproduce el camino
+ * anterior: recorrer el payload para extraer la clave en cada envío, volver a
+ * codificarla a bytes en el particionador y pedir la lista de particiones al
+ * Cluster. "current" usa la clave precalculada del QueueItem y el
+ * {@link SliceIdPartitioner} sobre keyBytes. El log INFO por mensaje que hacía el
+ * particionador anterior no se incluye, así que la diferencia es una cota inferior.
+ *
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="RoutingKeyBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingKeyBenchmark {
+
+    private static final String TOPIC = "linux-zone1-high";
+
+    @Param({"10"})
+    private int vmCount;
+
+    private Cluster cluster;
+    private SliceIdPartitioner partitioner;
+    private QueueItem legacyItem;
+    private QueueItem item;
+    private byte[] keyBytes;
+
+    @Setup
+    public void setUp() {
+        Node node = new Node(0, "localhost", 9092);
+        Node[] replicas = {node};
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            partitions.add(new PartitionInfo(TOPIC, i, node, replicas, replicas));
+        }
+        cluster = new Cluster("benchmark", List.of(node), partitions, Set.of(), Set.of());
+        partitioner = new SliceIdPartitioner();
+
+        Map<String, Object> payload = PayloadCodecBenchmark.SamplePayloads.deploySlice(vmCount);
+        legacyItem = QueueItem.builder()
+                .id(1L)
+                .operationType(OperationType.DEPLOY_SLICE)
+                .userId(7L)
+                .payload(payload)
+                .build();
+        item = QueueItem.builder()
+                .id(1L)
+                .operationType(OperationType.DEPLOY_SLICE)
+                .userId(7L)
+                .payload(payload)
+                .routingKey(RoutingKeys.of(OperationType.DEPLOY_SLICE, 7L, payload))
+                .build();
+        // El StringSerializer del productor codifica la clave una vez en ambos casos
+        keyBytes = item.getRoutingKey().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int legacy() {
+        String key = legacyKey(legacyItem);
+        int numPartitions = cluster.partitionsForTopic(TOPIC).size();
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % numPartitions;
+    }
+
+    @Benchmark
+    public int current() {
+        String key = RoutingKeys.of(item);
+        return partitioner.partition(TOPIC, key, keyBytes, item, null, cluster);
+    }
+
+    /**
+     * Extracción anterior de la clave (sin los logs), para DEPLOY_SLICE
+     */
+    @SuppressWarnings("unchecked")
+    private static String legacyKey(QueueItem queueItem) {
+        Map<String, Object> payload = queueItem.getPayload();
+        String sliceId = null;
+        if (queueItem.getOperationType() == OperationType.DEPLOY_SLICE) {
+            if (payload.containsKey("slice_info")) {
+                Object sliceInfoObj = payload.get("slice_info");
+                if (sliceInfoObj instanceof Map) {
+                    Map<String, Object> sliceInfo = (Map<String, Object>) sliceInfoObj;
+                    if (sliceInfo.containsKey("id")) {
+                        sliceId = String.valueOf(sliceInfo.get("id"));
+                    }
+                }
+            }
+            if (sliceId == null && payload.containsKey("network_config")) {
+                Object networkConfigObj = payload.get("network_config");
+                if (networkConfigObj instanceof Map) {
+                    Map<String, Object> networkConfig = (Map<String, Object>) networkConfigObj;
+                    if (networkConfig.containsKey("slice_id")) {
+                        sliceId = String.valueOf(networkConfig.get("slice_id"));
+                    }
+                }
+            }
+        }
+        return sliceId != null && !sliceId.isEmpty() ? "slice-" + sliceId : "user-" + queueItem.getUserId();
+    }
+}
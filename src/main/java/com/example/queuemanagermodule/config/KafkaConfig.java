@@ -1,47 +1,103 @@
 package com.example.queuemanagermodule.config;
 
+import com.example.queuemanagermodule.model.OperationStatusUpdate;
+import com.example.queuemanagermodule.model.Priority;
 import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.model.QueueRoute;
+import com.example.queuemanagermodule.service.QueueCatalog;
+import com.example.queuemanagermodule.service.RetryTopics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConfig {
 
+    private final Environment environment;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
-    @Value("${kafka.topics.LINUX_ZONE1_HIGH}")
-    private String linuxZone1HighTopic;
+    @Value("${kafka.wire.binary-topics:}")
+    private List<String> binaryTopics;
+
+    @Value("${kafka.wire.compression-type:gzip}")
+    private String queueItemCompressionType;
+
+    @Value("${kafka.wire.max-request-size:5242880}")
+    private int queueItemMaxRequestSize;
+
+    @Value("${kafka.topics.status}")
+    private String statusTopic;
+
+    @Value("${kafka.topics.status-dlt:queue-operation-status.DLT}")
+    private String statusDltTopic;
+
+    @Value("${kafka.partitions.status:8}")
+    private int statusPartitions;
+
+    @Value("${queue.status.consumer-group}")
+    private String statusConsumerGroup;
 
-    @Value("${kafka.topics.LINUX_ZONE1_MEDIUM}")
-    private String linuxZone1MediumTopic;
+    @Value("${queue.status.concurrency:2}")
+    private int statusConcurrency;
 
-    @Value("${kafka.topics.LINUX_ZONE1_LOW}")
-    private String linuxZone1LowTopic;
+    @Value("${queue.status.max-poll-records:1000}")
+    private int statusMaxPollRecords;
 
-    @Value("${kafka.partitions.high:8}")
-    private int highPriorityPartitions;
+    @Value("${queue.status.coalesce-window-ms:200}")
+    private int statusCoalesceWindowMs;
 
-    @Value("${kafka.partitions.medium:4}")
-    private int mediumPriorityPartitions;
+    @Value("${kafka.topics.cancel}")
+    private String cancelTopic;
 
-    @Value("${kafka.partitions.low:2}")
-    private int lowPriorityPartitions;
+    @Value("${kafka.partitions.cancel:4}")
+    private int cancelPartitions;
+
+    @Value("${kafka.topics.cancel-retention-ms:604800000}")
+    private long cancelRetentionMs;
+
+    @Value("${kafka.partitions.retry:2}")
+    private int retryPartitions;
+
+    @Value("${queue.retry.consumer-group}")
+    private String retryConsumerGroup;
 
     @Bean
     public KafkaAdmin kafkaAdmin() {
@@ -51,21 +107,47 @@ public class KafkaConfig {
     }
 
     @Bean
-    public NewTopic linuxZone1HighTopic() {
-        // Aumentar particiones para tópico de alta prioridad
-        return new NewTopic(linuxZone1HighTopic, highPriorityPartitions, (short) 1);
+    public KafkaAdmin.NewTopics queueTopicsDeclaration(QueueCatalog queueCatalog) {
+        // Un tópico por cola del catálogo; las particiones dependen de la prioridad
+        Map<String, NewTopic> topics = new LinkedHashMap<>();
+        for (QueueRoute route : queueCatalog.routes()) {
+            topics.putIfAbsent(route.getTopic(),
+                    new NewTopic(route.getTopic(), route.getPartitions(), (short) 1));
+        }
+        return new KafkaAdmin.NewTopics(topics.values().toArray(NewTopic[]::new));
+    }
+
+    @Bean
+    public NewTopic operationStatusTopic() {
+        // Eventos de estado de los workers, con clave = ID de operación
+        return new NewTopic(statusTopic, statusPartitions, (short) 1);
+    }
+
+    @Bean
+    public NewTopic operationStatusDltTopic() {
+        // Eventos de estado que no se pudieron aplicar; mismas particiones que el origen
+        return new NewTopic(statusDltTopic, statusPartitions, (short) 1);
     }
 
     @Bean
-    public NewTopic linuxZone1MediumTopic() {
-        // Particiones para prioridad media
-        return new NewTopic(linuxZone1MediumTopic, mediumPriorityPartitions, (short) 1);
+    public NewTopic operationCancelTopic() {
+        // Compactado por ID de operación: un worker que arranca lee solo la última
+        // cancelación de cada operación; las antiguas caducan por retención
+        return TopicBuilder.name(cancelTopic)
+                .partitions(cancelPartitions)
+                .replicas(1)
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG,
+                        TopicConfig.CLEANUP_POLICY_COMPACT + "," + TopicConfig.CLEANUP_POLICY_DELETE)
+                .config(TopicConfig.RETENTION_MS_CONFIG, Long.toString(cancelRetentionMs))
+                .build();
     }
 
     @Bean
-    public NewTopic linuxZone1LowTopic() {
-        // Particiones para prioridad baja
-        return new NewTopic(linuxZone1LowTopic, lowPriorityPartitions, (short) 1);
+    public KafkaAdmin.NewTopics retryTopicsDeclaration(RetryTopics retryTopics) {
+        // Un tópico por prioridad y escalón de espera
+        return new KafkaAdmin.NewTopics(retryTopics.topics().stream()
+                .map(topic -> TopicBuilder.name(topic).partitions(retryPartitions).replicas(1).build())
+                .toArray(NewTopic[]::new));
     }
 
     @Bean
@@ -85,6 +167,9 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 10);
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
+        // Productor idempotente: los reintentos internos no duplican ni reordenan mensajes
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
 
         // Para mensajes grandes de DEPLOY_SLICE
         configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, 5242880); // 5MB
@@ -100,12 +185,47 @@ public class KafkaConfig {
 
     @Bean
     public ProducerFactory<String, QueueItem> queueItemProducerFactory() {
+        // Productor por defecto: prioridad MEDIUM, tópicos de reintento y reenvíos
+        return new DefaultKafkaProducerFactory<>(queueItemProducerConfig(Priority.MEDIUM));
+    }
+
+    @Bean
+    @Primary  // Marcar como primary para que sea la preferida cuando se inyecte KafkaTemplate<String, QueueItem>
+    public KafkaTemplate<String, QueueItem> queueItemKafkaTemplate() {
+        return new KafkaTemplate<>(queueItemProducerFactory());
+    }
+
+    @Bean
+    public ProducerFactory<String, QueueItem> highPriorityProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(queueItemProducerConfig(Priority.HIGH));
+    }
+
+    @Bean
+    public ProducerFactory<String, QueueItem> lowPriorityProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(queueItemProducerConfig(Priority.LOW));
+    }
+
+    @Bean
+    public PriorityKafkaTemplates priorityKafkaTemplates() {
+        Map<Priority, KafkaTemplate<String, QueueItem>> templates = new EnumMap<>(Priority.class);
+        templates.put(Priority.HIGH, new KafkaTemplate<>(highPriorityProducerFactory()));
+        templates.put(Priority.MEDIUM, queueItemKafkaTemplate());
+        templates.put(Priority.LOW, new KafkaTemplate<>(lowPriorityProducerFactory()));
+        return new PriorityKafkaTemplates(templates, Priority.MEDIUM);
+    }
+
+    /**
+     * Configuración del productor de QueueItem con los ajustes de lote de la prioridad
+     * (kafka.producer.&lt;prioridad&gt;.*): HIGH envía en cuanto puede, LOW espera a
+     * llenar lotes grandes y comprime más
+     */
+    private Map<String, Object> queueItemProducerConfig(Priority priority) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
                 org.apache.kafka.common.serialization.StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                org.springframework.kafka.support.serializer.JsonSerializer.class);
+        // JSON o binario según el tópico (kafka.wire.binary-topics)
+        QueueItemSerde.configureValueSerializer(configProps, binaryTopics);
 
         // Reutilizar las mismas configuraciones que tu producer existente
         configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG,
@@ -113,16 +233,88 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 10);
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
-        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, 5242880); // 5MB
-        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "gzip");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // 5MB por defecto; con claim-check activo puede bajarse al umbral más un margen
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, queueItemMaxRequestSize);
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        String prefix = "kafka.producer." + priority.name().toLowerCase(Locale.ROOT) + ".";
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG,
+                environment.getProperty(prefix + "compression-type", queueItemCompressionType));
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG,
+                environment.getProperty(prefix + "linger-ms", Integer.class, 0));
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG,
+                environment.getProperty(prefix + "batch-size", Integer.class, 16384));
+        configProps.put(ProducerConfig.CLIENT_ID_CONFIG, "queue-manager-" + priority.name().toLowerCase(Locale.ROOT));
+        return configProps;
     }
 
     @Bean
-    @Primary  // Marcar como primary para que sea la preferida cuando se inyecte KafkaTemplate<String, QueueItem>
-    public KafkaTemplate<String, QueueItem> queueItemKafkaTemplate() {
-        return new KafkaTemplate<>(queueItemProducerFactory());
+    public ConsumerFactory<String, OperationStatusUpdate> operationStatusConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, statusConsumerGroup);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, OperationStatusUpdate.class.getName());
+        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        // El broker retiene la respuesta hasta juntar datos o agotar la ventana:
+        // es la ventana en la que se agrupan las actualizaciones de una misma operación
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, statusMaxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 64 * 1024);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, statusCoalesceWindowMs);
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OperationStatusUpdate> statusBatchListenerContainerFactory(
+            @Qualifier("generalKafkaTemplate") KafkaTemplate<String, Object> generalKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, OperationStatusUpdate> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(operationStatusConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(statusConcurrency);
+
+        // Un fallo del lote completo (BD caída) se reintenta sin límite, con espera
+        // creciente hasta 30 s: los resultados de los workers no se pierden. Un evento
+        // que falla por sí solo llega como BatchListenerFailedException (ver
+        // OperationStatusConsumer), se reintenta dos veces y va al DLT de estados.
+        ExponentialBackOff batchBackOff = new ExponentialBackOff(1000L, 2.0);
+        batchBackOff.setMaxInterval(30000L);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(generalKafkaTemplate,
+                (record, ex) -> new TopicPartition(statusDltTopic, record.partition()));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, batchBackOff);
+        errorHandler.setBackOffFunction((record, ex) -> new FixedBackOff(1000L, 2L));
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, QueueItem> retryConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, retryConsumerGroup);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        // Acepta QueueItem en JSON o binario mientras convivan ambos formatos
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, QueueItemDeserializer.class);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, QueueItem> retryListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, QueueItem> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(retryConsumerFactory());
+        // Ack manual: nack(espera) deja la cabeza sin confirmar hasta que vence
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
     }
 
     @Bean
@@ -0,0 +1,39 @@
+package com.example.queuemanagermodule.config;
+
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.model.QueueItem;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Un KafkaTemplate de QueueItem por prioridad, cada uno con su propio productor:
+ * el tráfico de LOW no comparte acumulador ni ajustes de lote con el de HIGH.
+ * Una prioridad sin template propio usa el de la prioridad por defecto.
+ */
+public class PriorityKafkaTemplates {
+
+    private final Map<Priority, KafkaTemplate<String, QueueItem>> templates;
+    private final Priority defaultProducer;
+
+    public PriorityKafkaTemplates(Map<Priority, KafkaTemplate<String, QueueItem>> templates,
+                                  Priority defaultProducer) {
+        if (!templates.containsKey(defaultProducer)) {
+            throw new IllegalArgumentException("No hay template para la prioridad por defecto " + defaultProducer);
+        }
+        this.templates = new EnumMap<>(templates);
+        this.defaultProducer = defaultProducer;
+    }
+
+    public KafkaTemplate<String, QueueItem> forPriority(Priority priority) {
+        return templates.get(producerFor(priority));
+    }
+
+    /**
+     * Prioridad del productor que envía los items de esa prioridad
+     */
+    public Priority producerFor(Priority priority) {
+        return priority != null && templates.containsKey(priority) ? priority : defaultProducer;
+    }
+}
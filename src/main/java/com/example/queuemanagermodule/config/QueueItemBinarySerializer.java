@@ -0,0 +1,32 @@
+package com.example.queuemanagermodule.config;
+
+import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.util.QueueItemWireCodec;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serializa QueueItem en el formato binario de {@link QueueItemWireCodec} y marca
+ * el mensaje con la cabecera de versión. Se asigna por tópico con
+ * kafka.wire.binary-topics (ver {@link QueueItemSerde}).
+ */
+public class QueueItemBinarySerializer implements Serializer<QueueItem> {
+
+    private static final byte[] VERSION = {QueueItemWireCodec.VERSION};
+
+    @Override
+    public byte[] serialize(String topic, QueueItem data) {
+        return data != null ? QueueItemWireCodec.encode(data) : null;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, QueueItem data) {
+        if (data == null) {
+            return null;
+        }
+        // Los consumidores eligen el formato por esta cabecera
+        headers.remove(QueueItemWireCodec.VERSION_HEADER);
+        headers.add(QueueItemWireCodec.VERSION_HEADER, VERSION);
+        return QueueItemWireCodec.encode(data);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.queuemanagermodule.config;
+
+import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.util.QueueItemWireCodec;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+
+/**
+ * Lee QueueItem en cualquiera de los dos formatos: binario si el mensaje trae la
+ * cabecera de versión de {@link QueueItemWireCodec}, JSON si no. Permite pasar un
+ * tópico a binario sin vaciarlo antes.
+ */
+public class QueueItemDeserializer implements Deserializer<QueueItem> {
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Override
+    public QueueItem deserialize(String topic, byte[] data) {
+        return deserializeJson(topic, data);
+    }
+
+    @Override
+    public QueueItem deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header version = headers.lastHeader(QueueItemWireCodec.VERSION_HEADER);
+        if (version == null) {
+            return deserializeJson(topic, data);
+        }
+        try {
+            return QueueItemWireCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("QueueItem binario inválido en " + topic + ": " + e.getMessage(), e);
+        }
+    }
+
+    private QueueItem deserializeJson(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(data, QueueItem.class);
+        } catch (IOException e) {
+            throw new SerializationException("QueueItem JSON inválido en " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
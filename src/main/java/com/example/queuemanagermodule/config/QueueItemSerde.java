@@ -0,0 +1,41 @@
+package com.example.queuemanagermodule.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerialization;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Elección del serializador de QueueItem por tópico: los que casan con algún patrón
+ * de kafka.wire.binary-topics usan {@link QueueItemBinarySerializer} y el resto
+ * sigue en JSON. Los consumidores propios usan {@link QueueItemDeserializer}, que
+ * acepta ambos formatos.
+ */
+public final class QueueItemSerde {
+
+    private QueueItemSerde() {
+    }
+
+    /**
+     * Configura el serializador de valores del productor de QueueItem
+     */
+    public static void configureValueSerializer(Map<String, Object> configProps, List<String> binaryTopics) {
+        List<String> patterns = binaryTopics.stream()
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .toList();
+        if (patterns.isEmpty()) {
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+            return;
+        }
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, DelegatingByTopicSerializer.class);
+        configProps.put(DelegatingByTopicSerialization.VALUE_SERIALIZATION_TOPIC_CONFIG, patterns.stream()
+                .map(pattern -> pattern + ":" + QueueItemBinarySerializer.class.getName())
+                .collect(Collectors.joining(",")));
+        configProps.put(DelegatingByTopicSerialization.VALUE_SERIALIZATION_TOPIC_DEFAULT, JsonSerializer.class);
+    }
+}
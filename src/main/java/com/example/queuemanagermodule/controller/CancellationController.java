@@ -0,0 +1,52 @@
+package com.example.queuemanagermodule.controller;
+
+import com.example.queuemanagermodule.service.CancellationRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+/**
+ * Consulta de cancelaciones recientes para los workers: el filtro de Bloom para
+ * descartar localmente y la comprobación exacta para los positivos
+ */
+@RestController
+@RequestMapping("/api/queue/cancellations")
+@RequiredArgsConstructor
+@Slf4j
+public class CancellationController {
+
+    private final CancellationRegistry cancellationRegistry;
+
+    /**
+     * Filtro serializado; con If-None-Match responde 304 si no cambió desde la última descarga
+     */
+    @GetMapping(path = "/bloom", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getBloomFilter(WebRequest request) {
+        // ETag, contador y bytes salen de la misma instantánea
+        CancellationRegistry.BloomSnapshot snapshot = cancellationRegistry.bloomSnapshot();
+        if (request.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .header("X-Cancelled-Count", String.valueOf(snapshot.count()))
+                .body(snapshot.bytes());
+    }
+
+    @GetMapping("/{operationId}")
+    public ResponseEntity<Map<String, Object>> isCancelled(@PathVariable Long operationId) {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "operationId", operationId,
+                "cancelled", cancellationRegistry.isCancelled(operationId)
+        ));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.queuemanagermodule.controller;
+
+import com.example.queuemanagermodule.service.ClaimCheckStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Descarga de payloads enviados por claim-check. El contenido es inmutable (la
+ * referencia es su SHA-256), así que se puede cachear sin límite. Con el conector
+ * NIO de Tomcat el fichero se envía con sendfile, sin pasar por el heap.
+ */
+@RestController
+@RequestMapping("/api/queue/payloads")
+@RequiredArgsConstructor
+@Slf4j
+public class ClaimCheckController {
+
+    // Atributos de petición con los que Tomcat hace el envío con sendfile
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ClaimCheckStore claimCheckStore;
+
+    @GetMapping("/{ref}")
+    public void getPayload(@PathVariable String ref, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        Path file = claimCheckStore.resolve(ref);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Payload no encontrado: " + ref);
+            return;
+        }
+
+        String etag = "\"" + ref + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = Files.size(file);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        // Sin sendfile: copia por canales, con transferTo cuando el destino lo permite
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.queuemanagermodule.controller;
+
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.service.ActiveOperationIndex;
+import com.example.queuemanagermodule.service.OperationEventStream;
+import com.example.queuemanagermodule.service.QueueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Streams SSE con las transiciones de estado, como alternativa a consultar
+ * GET /api/queue/operations/{id} en bucle. Las conexiones abiertas no ocupan hilos.
+ */
+@RestController
+@RequestMapping("/api/queue")
+@RequiredArgsConstructor
+@Slf4j
+public class OperationEventsController {
+
+    private final QueueService queueService;
+    private final OperationEventStream operationEventStream;
+    private final ActiveOperationIndex activeOperationIndex;
+
+    @Value("${queue.sse.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    /**
+     * Emite el estado actual y después cada transición; termina al llegar a un estado final.
+     * Si el índice de operaciones activas no es autoritativo, las transiciones pueden
+     * confirmarse en otra instancia: el estado se vuelve a leer de la BD en cada latido.
+     */
+    @GetMapping(path = "/operations/{operationId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OperationStatusChangedEvent>> operationEvents(@PathVariable Long operationId) {
+        log.debug("Nueva suscripción SSE a la operación ID: {}", operationId);
+
+        Flux<OperationStatusChangedEvent> transitions = operationEventStream
+                .operationEvents(operationId, currentStatus(operationId));
+        if (!activeOperationIndex.isAuthoritative()) {
+            transitions = transitions
+                    .mergeWith(Flux.interval(Duration.ofSeconds(heartbeatSeconds))
+                            .concatMap(tick -> currentStatus(operationId)))
+                    .distinctUntilChanged(OperationStatusChangedEvent::getNewStatus);
+        }
+
+        Flux<ServerSentEvent<OperationStatusChangedEvent>> events = transitions
+                .takeUntil(event -> OperationEventStream.isTerminal(event.getNewStatus()))
+                .map(this::toServerSentEvent)
+                .onErrorResume(e -> Flux.just(ServerSentEvent.<OperationStatusChangedEvent>builder()
+                        .event("error")
+                        .comment(e.getMessage())
+                        .build()));
+
+        return withHeartbeat(events);
+    }
+
+    /**
+     * Emite las transiciones de todas las operaciones del usuario mientras la conexión siga abierta.
+     * Solo incluye las confirmadas en esta instancia.
+     */
+    @GetMapping(path = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OperationStatusChangedEvent>> userEvents(@PathVariable Long userId) {
+        log.debug("Nueva suscripción SSE a las operaciones del usuario ID: {}", userId);
+        return withHeartbeat(operationEventStream.userEvents(userId).map(this::toServerSentEvent));
+    }
+
+    private Mono<OperationStatusChangedEvent> currentStatus(Long operationId) {
+        return Mono.fromCallable(() -> queueService.getOperationStatus(operationId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(status -> OperationStatusChangedEvent.builder()
+                        .operationId(operationId)
+                        .newStatus(status)
+                        .build());
+    }
+
+    private ServerSentEvent<OperationStatusChangedEvent> toServerSentEvent(OperationStatusChangedEvent event) {
+        return ServerSentEvent.<OperationStatusChangedEvent>builder()
+                .id(String.valueOf(event.getOperationId()))
+                .event("status")
+                .data(event)
+                .build();
+    }
+
+    /**
+     * Intercala comentarios periódicos para que proxies y clientes no cierren la conexión inactiva
+     */
+    private Flux<ServerSentEvent<OperationStatusChangedEvent>> withHeartbeat(
+            Flux<ServerSentEvent<OperationStatusChangedEvent>> events) {
+        return events.publish(shared -> Flux.merge(shared,
+                Flux.interval(Duration.ofSeconds(heartbeatSeconds))
+                        .map(tick -> ServerSentEvent.<OperationStatusChangedEvent>builder().comment("heartbeat").build())
+                        .takeUntilOther(shared.then(Mono.just(Boolean.TRUE)))));
+    }
+}
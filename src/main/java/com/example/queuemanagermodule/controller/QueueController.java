@@ -1,15 +1,21 @@
 package com.example.queuemanagermodule.controller;
 
 import com.example.queuemanagermodule.model.*;
+import com.example.queuemanagermodule.service.AdmissionRejectedException;
 import com.example.queuemanagermodule.service.QueueService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,33 +27,47 @@ public class QueueController {
 
     private final QueueService queueService;
 
+    @Value("${queue.batch.max-size:500}")
+    private int maxBatchSize;
+
     @PostMapping("/operations")
     public ResponseEntity<Map<String, Object>> enqueueOperation(
-            @RequestBody @Valid Map<String, Object> request) {
+            @RequestBody @Valid Map<String, Object> request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         log.info("Recibida solicitud para encolar operación: {}", request);
 
         try {
-            OperationType operationType = OperationType.valueOf((String) request.get("operationType"));
-            ClusterType clusterType = ClusterType.valueOf((String) request.get("clusterType"));
-            Integer zoneId = (Integer) request.get("zoneId");
-            Long userId = Long.valueOf(request.get("userId").toString());
-            Map<String, Object> payload = (Map<String, Object>) request.get("payload");
-            String priorityStr = (String) request.get("priority");
-            Priority priority = null;
-            if (priorityStr != null) {
-                priority = Priority.valueOf(priorityStr);
+            if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 100)) {
+                throw new IllegalArgumentException("Idempotency-Key debe tener entre 1 y 100 caracteres");
             }
-            // Si priority es null, QueueServiceImpl.determinePriority() será llamado automáticamente
+            Operation operation = toOperation(request);
 
             Long operationId = queueService.enqueueOperation(
-                    operationType, clusterType, zoneId, userId, payload, priority);
+                    operation.getType(), operation.getClusterType(), operation.getZoneId(),
+                    operation.getUserId(), operation.getPayload(), operation.getPriority(), idempotencyKey);
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Operación encolada exitosamente",
                     "operationId", operationId
             ));
+        } catch (AdmissionRejectedException e) {
+            log.warn("Encolado rechazado por admisión ({}): {}", e.getReason(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of(
+                            "success", false,
+                            "message", e.getMessage(),
+                            "retryAfterSeconds", e.getRetryAfterSeconds()
+                    ));
+        } catch (IllegalArgumentException e) {
+            // Datos inválidos o combinación de cluster/zona fuera del catálogo de colas
+            log.warn("Solicitud de encolado rechazada: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
         } catch (Exception e) {
             log.error("Error al encolar la operación", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -57,6 +77,82 @@ public class QueueController {
         }
     }
 
+    @PostMapping("/operations:batch")
+    public ResponseEntity<Map<String, Object>> enqueueOperations(@RequestBody Map<String, Object> request) {
+        List<Map<String, Object>> items = (List<Map<String, Object>>) request.get("operations");
+        log.info("Recibida solicitud para encolar lote de {} operaciones", items != null ? items.size() : 0);
+
+        if (items == null || items.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "El lote no contiene operaciones"
+            ));
+        }
+        if (items.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "El lote excede el máximo de " + maxBatchSize + " operaciones"
+            ));
+        }
+
+        try {
+            List<EnqueueResult> results = new ArrayList<>(items.size());
+            List<Operation> operations = new ArrayList<>(items.size());
+            List<Integer> positions = new ArrayList<>(items.size());
+
+            for (int i = 0; i < items.size(); i++) {
+                try {
+                    operations.add(toOperation(items.get(i)));
+                    positions.add(i);
+                } catch (Exception e) {
+                    results.add(EnqueueResult.builder()
+                            .index(i)
+                            .success(false)
+                            .message("Operación inválida: " + e.getMessage())
+                            .build());
+                }
+            }
+
+            List<EnqueueResult> enqueued = queueService.enqueueOperations(operations);
+            for (int j = 0; j < enqueued.size(); j++) {
+                EnqueueResult result = enqueued.get(j);
+                result.setIndex(positions.get(j));
+                results.add(result);
+            }
+            results.sort(Comparator.comparing(EnqueueResult::getIndex));
+
+            long accepted = results.stream().filter(EnqueueResult::isSuccess).count();
+            return ResponseEntity.ok(Map.of(
+                    "success", accepted == results.size(),
+                    "accepted", accepted,
+                    "rejected", results.size() - accepted,
+                    "results", results
+            ));
+        } catch (AdmissionRejectedException e) {
+            log.warn("Lote rechazado por admisión ({}): {}", e.getReason(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of(
+                            "success", false,
+                            "message", e.getMessage(),
+                            "retryAfterSeconds", e.getRetryAfterSeconds()
+                    ));
+        } catch (IllegalArgumentException e) {
+            // El lote pide más tokens que la ráfaga configurada
+            log.warn("Lote rechazado: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            log.error("Error al encolar el lote de operaciones", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error al encolar el lote: " + e.getMessage()
+            ));
+        }
+    }
+
     @GetMapping("/operations/{operationId}")
     public ResponseEntity<Map<String, Object>> getOperationStatus(@PathVariable Long operationId) {
         log.info("Consultando estado de la operación ID: {}", operationId);
@@ -103,10 +199,90 @@ public class QueueController {
         }
     }
 
+    @DeleteMapping("/user/{userId}/operations")
+    public ResponseEntity<Map<String, Object>> cancelUserOperations(@PathVariable Long userId) {
+        log.info("Solicitud de cancelación de las operaciones pendientes del usuario ID: {}", userId);
+
+        try {
+            int cancelled = queueService.cancelUserOperations(userId);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "cancelled", cancelled,
+                    "message", "Operaciones pendientes canceladas: " + cancelled
+            ));
+        } catch (Exception e) {
+            log.error("Error al cancelar las operaciones del usuario", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error al cancelar las operaciones: " + e.getMessage()
+            ));
+        }
+    }
+
+    @DeleteMapping("/slices/{sliceId}/operations")
+    public ResponseEntity<Map<String, Object>> cancelSliceOperations(@PathVariable String sliceId) {
+        log.info("Solicitud de cancelación de las operaciones pendientes del slice ID: {}", sliceId);
+
+        try {
+            int cancelled = queueService.cancelSliceOperations(sliceId);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "cancelled", cancelled,
+                    "message", "Operaciones pendientes canceladas: " + cancelled
+            ));
+        } catch (Exception e) {
+            log.error("Error al cancelar las operaciones del slice", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error al cancelar las operaciones: " + e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/operations/{operationId}/details")
+    public ResponseEntity<Map<String, Object>> getOperationDetails(@PathVariable Long operationId) {
+        log.info("Consultando detalle de la operación ID: {}", operationId);
+
+        try {
+            OperationDetails details = queueService.getOperationDetails(operationId);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "operation", details
+            ));
+        } catch (Exception e) {
+            log.error("Error al consultar el detalle de la operación", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error al consultar el detalle: " + e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/operations/{operationId}/result")
+    public ResponseEntity<Map<String, Object>> getOperationResult(@PathVariable Long operationId) {
+        log.info("Consultando resultado de la operación ID: {}", operationId);
+
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("operationId", operationId);
+            response.put("result", queueService.getOperationResult(operationId));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error al consultar el resultado de la operación", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error al consultar el resultado: " + e.getMessage()
+            ));
+        }
+    }
+
     @GetMapping("/user/{userId}/operations")
     public ResponseEntity<Map<String, Object>> getUserOperations(
             @PathVariable Long userId,
-            @RequestParam(required = false) List<String> statuses) {
+            @RequestParam(required = false) List<String> statuses,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
 
         log.info("Consultando operaciones del usuario ID: {}", userId);
 
@@ -118,12 +294,19 @@ public class QueueController {
                         .toList();
             }
 
-            List<QueueItem> operations = queueService.getUserOperations(userId, statusList);
+            OperationPage page = queueService.getUserOperations(userId, statusList, cursor, limit);
 
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "userId", userId,
-                    "operations", operations
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("userId", userId);
+            response.put("operations", page.getOperations());
+            response.put("hasMore", page.isHasMore());
+            response.put("nextCursor", page.getNextCursor());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Parámetros inválidos: " + e.getMessage()
             ));
         } catch (Exception e) {
             log.error("Error al consultar operaciones del usuario", e);
@@ -133,4 +316,20 @@ public class QueueController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Convierte el cuerpo de una solicitud de encolado en una {@link Operation}
+     */
+    private Operation toOperation(Map<String, Object> request) {
+        String priorityStr = (String) request.get("priority");
+        return Operation.builder()
+                .type(OperationType.valueOf((String) request.get("operationType")))
+                .clusterType(ClusterType.valueOf((String) request.get("clusterType")))
+                .zoneId((Integer) request.get("zoneId"))
+                .userId(Long.valueOf(request.get("userId").toString()))
+                .payload((Map<String, Object>) request.get("payload"))
+                // Si priority es null, QueueServiceImpl.determinePriority() será llamado automáticamente
+                .priority(priorityStr != null ? Priority.valueOf(priorityStr) : null)
+                .build();
+    }
+}
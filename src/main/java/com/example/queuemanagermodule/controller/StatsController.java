@@ -41,6 +41,43 @@ public class StatsController {
         }
     }
 
+    @GetMapping("/operation-types")
+    public ResponseEntity<Map<String, Object>> getOperationTypeLatencies() {
+        log.info("Consultando latencias por tipo de operación");
+
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "waitTime", queueService.getWaitTimeByOperationType(),
+                    "processingTime", queueService.getProcessingTimeByOperationType()
+            ));
+        } catch (Exception e) {
+            log.error("Error al consultar latencias por tipo de operación", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error al consultar latencias: " + e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/kafka-send")
+    public ResponseEntity<Map<String, Object>> getKafkaSendLatencies() {
+        log.info("Consultando latencias de envío a Kafka por prioridad");
+
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "sendTime", queueService.getKafkaSendTimeByPriority()
+            ));
+        } catch (Exception e) {
+            log.error("Error al consultar latencias de envío a Kafka", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error al consultar latencias: " + e.getMessage()
+            ));
+        }
+    }
+
     @GetMapping("/queues/{queueName}")
     public ResponseEntity<Map<String, Object>> getQueueStats(@PathVariable String queueName) {
         log.info("Consultando estadísticas de la cola: {}", queueName);
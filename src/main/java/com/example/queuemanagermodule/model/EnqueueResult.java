@@ -0,0 +1,18 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnqueueResult {
+    private Integer index;          // Posición de la operación dentro del lote recibido
+    private Long operationId;
+    private String queueName;
+    private boolean success;
+    private String message;
+}
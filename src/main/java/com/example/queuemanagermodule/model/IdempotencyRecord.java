@@ -0,0 +1,19 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de idempotency_keys: operationId es null mientras el encolado que la
+ * reservó no ha terminado
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    private Long userId;
+    private Long operationId;
+}
@@ -0,0 +1,19 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencySummary {
+    private Long count;
+    private Double meanSeconds;
+    private Double p50Seconds;
+    private Double p90Seconds;
+    private Double p99Seconds;
+    private Double maxSeconds;
+}
@@ -0,0 +1,22 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mensaje del tópico compactado de cancelaciones; la clave es el ID de operación
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationCancellation {
+    private Long operationId;
+    private Long userId;
+    private String queueName;
+    private LocalDateTime cancelledAt;
+}
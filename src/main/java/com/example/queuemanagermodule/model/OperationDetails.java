@@ -0,0 +1,21 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Operación completa con su payload y resultado, para consultas puntuales
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationDetails {
+    private OperationSummary summary;
+    private Map<String, Object> payload;
+    private Map<String, Object> result;
+}
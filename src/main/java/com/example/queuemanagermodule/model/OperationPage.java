@@ -0,0 +1,18 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationPage {
+    private List<OperationSummary> operations;
+    private String nextCursor;      // Se pasa como ?cursor= para pedir la página siguiente; null si no hay más
+    private boolean hasMore;
+}
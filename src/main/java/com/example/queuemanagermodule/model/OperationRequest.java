@@ -48,6 +48,10 @@ public class OperationRequest {
     @Column
     private LocalDateTime completedAt;
 
+    // Asignada por la BD (trigger, UTC) al pasar a un estado terminal; watermark del rollup y del archivado
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime terminalAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OperationStatus status;
@@ -64,6 +68,14 @@ public class OperationRequest {
     @Column(nullable = false)
     private String queueName;
 
+    // Clave de partición del mensaje en Kafka (slice-<id> o user-<id>)
+    @Column(length = 100)
+    private String routingKey;
+
+    // Operación que dejó sin efecto a esta al encolarse (ver OperationCoalescer)
+    @Column
+    private Long supersededBy;
+
     // Almacenamos el payload como JSON
     @Column(columnDefinition = "JSON")
     private String payloadJson;
@@ -71,4 +83,11 @@ public class OperationRequest {
     // Almacenamos también el resultado como JSON
     @Column(columnDefinition = "JSON")
     private String resultJson;
+
+    // Formato compacto (ver PayloadCodec); si están presentes tienen prioridad sobre las columnas JSON
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] payloadBlob;
+
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] resultBlob;
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de aplicación emitido en cada transición de estado de una operación.
+ * previousStatus es null cuando la operación acaba de crearse.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationStatusChangedEvent {
+    private Long operationId;
+    private String queueName;
+    private OperationType operationType;
+    private Long userId;
+    private OperationStatus previousStatus;
+    private OperationStatus newStatus;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private Integer retryCount;
+}
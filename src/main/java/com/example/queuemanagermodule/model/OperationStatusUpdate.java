@@ -0,0 +1,26 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Evento de estado que publican los workers en el tópico kafka.topics.status
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationStatusUpdate {
+    private Long operationId;
+    private OperationStatus status;     // IN_PROGRESS, COMPLETED o FAILED
+    private LocalDateTime timestamp;    // Momento del cambio en el worker
+    private String errorMessage;
+    private Map<String, Object> result;
+    private String workerId;
+    private Integer attempt;            // retryCount del QueueItem procesado; descarta eventos de intentos anteriores
+}
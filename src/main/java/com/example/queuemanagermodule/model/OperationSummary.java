@@ -0,0 +1,33 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vista ligera de una operación para listados; no incluye payload ni resultado
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationSummary {
+    private Long id;
+    private String queueName;
+    private OperationType operationType;
+    private ClusterType clusterType;
+    private Integer zoneId;
+    private Long userId;
+    private Priority priority;
+    private OperationStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String errorMessage;
+    private Integer retryCount;
+    private Integer maxRetries;
+    private Long supersededBy;      // Si se canceló por coalescencia, la operación que la reemplazó
+}
@@ -0,0 +1,52 @@
+package com.example.queuemanagermodule.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "operation_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long operationId;
+
+    @Column(nullable = false)
+    private String topicName;
+
+    // QueueItem serializado tal como se publicará en Kafka
+    @Column(columnDefinition = "JSON", nullable = false)
+    private String queueItemJson;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column
+    private LocalDateTime publishedAt;
+
+    // Antes de este instante el relay no lo toma: lo tiene reclamado otro lote o espera tras un fallo
+    @Column
+    private LocalDateTime nextAttemptAt;
+}
@@ -0,0 +1,8 @@
+package com.example.queuemanagermodule.model;
+
+public enum OutboxStatus {
+    PENDING,         // Registrado en la transacción, aún no publicado en Kafka
+    PUBLISHED,       // Kafka confirmó la recepción (ack)
+    FAILED,          // Se agotaron los reintentos de publicación
+    CANCELLED        // Su operación se reemplazó por coalescencia antes de publicarse
+}
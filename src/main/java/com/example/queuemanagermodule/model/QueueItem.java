@@ -27,4 +27,9 @@ public class QueueItem {
     private String errorMessage;
     private Integer retryCount;
     private Integer maxRetries;
+    // Clave del mensaje Kafka (ver RoutingKeys), calculada al encolar
+    private String routingKey;
+    // Claim-check: SHA-256 del payload guardado aparte (payload viaja a null) y su tamaño
+    private String payloadRef;
+    private Long payloadSize;
 }
\ No newline at end of file
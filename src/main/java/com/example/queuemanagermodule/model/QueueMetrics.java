@@ -47,6 +47,41 @@ public class QueueMetrics {
     @Column
     private Long maxProcessingTimeSeconds;
 
+    @Column
+    private Double waitTimeP50Seconds;
+
+    @Column
+    private Double waitTimeP90Seconds;
+
+    @Column
+    private Double waitTimeP99Seconds;
+
+    @Column
+    private Double processingTimeP50Seconds;
+
+    @Column
+    private Double processingTimeP90Seconds;
+
+    @Column
+    private Double processingTimeP99Seconds;
+
+    // Acumulados de operaciones terminadas (COMPLETED/FAILED) hasta rollupWatermark.
+    // Permiten retomar el rollup incremental sin reprocesar el histórico.
+    @Column
+    private Long terminalWaitSamples;
+
+    @Column
+    private Long terminalWaitSumSeconds;
+
+    @Column
+    private Long terminalProcessingSamples;
+
+    @Column
+    private Long terminalProcessingSumSeconds;
+
+    @Column
+    private LocalDateTime rollupWatermark;
+
     @Column(nullable = false)
     private LocalDateTime lastUpdated;
 
@@ -0,0 +1,23 @@
+package com.example.queuemanagermodule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entrada de la tabla de enrutado: cola lógica, tópico de Kafka y particiones
+ * para una combinación (cluster, zona, prioridad)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueRoute {
+    private ClusterType clusterType;
+    private Integer zoneId;
+    private Priority priority;
+    private String queueName;
+    private String topic;
+    private int partitions;
+}
@@ -19,5 +19,13 @@ public class QueueStats {
     private Long failedOperations;
     private Double averageWaitTimeSeconds;
     private Double averageProcessingTimeSeconds;
+    private Double waitTimeP50Seconds;
+    private Double waitTimeP90Seconds;
+    private Double waitTimeP99Seconds;
+    private Double maxWaitTimeSeconds;
+    private Double processingTimeP50Seconds;
+    private Double processingTimeP90Seconds;
+    private Double processingTimeP99Seconds;
+    private Double maxProcessingTimeSeconds;
     private LocalDateTime lastUpdated;
 }
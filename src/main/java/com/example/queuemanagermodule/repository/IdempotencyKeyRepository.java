@@ -0,0 +1,69 @@
+package com.example.queuemanagermodule.repository;
+
+import com.example.queuemanagermodule.model.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acceso JDBC a idempotency_keys. Se usa dentro de la transacción del encolado,
+ * con la misma conexión que JPA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private static final String SELECT =
+            "SELECT user_id, operation_id FROM idempotency_keys WHERE idempotency_key = ?";
+
+    private static final String INSERT =
+            "INSERT INTO idempotency_keys (idempotency_key, user_id, operation_id, created_at) VALUES (?, ?, NULL, ?)";
+
+    private static final String UPDATE_OPERATION =
+            "UPDATE idempotency_keys SET operation_id = ? WHERE idempotency_key = ?";
+
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM idempotency_keys WHERE created_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Con locking lee la última versión confirmada en lugar de la instantánea de la transacción
+     * @return la fila, o null si la clave no existe
+     */
+    public IdempotencyRecord find(String idempotencyKey, boolean locking) {
+        List<IdempotencyRecord> rows = jdbcTemplate.query(locking ? SELECT + " FOR SHARE" : SELECT,
+                (rs, rowNum) -> IdempotencyRecord.builder()
+                        .userId(rs.getLong(1))
+                        .operationId(rs.getObject(2, Long.class))
+                        .build(),
+                idempotencyKey);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Reserva la clave. Si otra transacción la tiene reservada, espera a que termine.
+     * @return false si la clave ya existe
+     */
+    public boolean reserve(String idempotencyKey, Long userId, LocalDateTime now) {
+        try {
+            jdbcTemplate.update(INSERT, idempotencyKey, userId, Timestamp.valueOf(now));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void bind(String idempotencyKey, Long operationId) {
+        jdbcTemplate.update(UPDATE_OPERATION, operationId, idempotencyKey);
+    }
+
+    public int deleteExpired(LocalDateTime before, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.valueOf(before), limit);
+    }
+}
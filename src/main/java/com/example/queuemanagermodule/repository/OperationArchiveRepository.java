@@ -0,0 +1,137 @@
+package com.example.queuemanagermodule.repository;
+
+import com.example.queuemanagermodule.model.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Acceso a operation_requests_archive, donde se mueven las operaciones terminadas
+ * antiguas. El movimiento se hace con INSERT ... SELECT + DELETE por lotes de IDs
+ * para que los payloads no pasen por la aplicación.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OperationArchiveRepository {
+
+    public static final List<String> TERMINAL_STATUSES = List.of(
+            OperationStatus.COMPLETED.name(), OperationStatus.FAILED.name(),
+            OperationStatus.CANCELLED.name(), OperationStatus.TIMEOUT.name());
+
+    private static final String COLUMNS = OperationRowMappers.ALL_COLUMNS;
+
+    private static final String SELECT_ARCHIVABLE_IDS =
+            "SELECT id FROM operation_requests WHERE status IN (:statuses) AND terminal_at < :cutoff LIMIT :limit";
+
+    private static final String COPY_TO_ARCHIVE =
+            "INSERT INTO operation_requests_archive (" + COLUMNS + ", archived_at) " +
+            "SELECT " + COLUMNS + ", :archivedAt FROM operation_requests " +
+            "WHERE id IN (:ids) AND status IN (:statuses)";
+
+    private static final String DELETE_FROM_HOT =
+            "DELETE FROM operation_requests WHERE id IN (:ids) AND status IN (:statuses)";
+
+    private static final String SELECT_STATUS = "SELECT status FROM operation_requests_archive WHERE id = :id";
+
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM operation_requests_archive WHERE id = :id";
+
+    private static final String COUNT_GROUPED =
+            "SELECT queue_name, status, COUNT(*) AS total FROM operation_requests_archive GROUP BY queue_name, status";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * IDs de operaciones terminadas antes de cutoff, como mucho limit. Usa terminal_at,
+     * que la BD asigna en todo estado terminal, porque completed_at puede ser NULL
+     */
+    public List<Long> findArchivableIds(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList(SELECT_ARCHIVABLE_IDS, new MapSqlParameterSource()
+                .addValue("statuses", TERMINAL_STATUSES)
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", limit), Long.class);
+    }
+
+    /**
+     * Copia las operaciones al archivo y las borra de la tabla caliente en la misma
+     * transacción. Devuelve cuántas filas se movieron.
+     */
+    @Transactional
+    public int moveToArchive(Collection<Long> ids, LocalDateTime archivedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("statuses", TERMINAL_STATUSES)
+                .addValue("archivedAt", Timestamp.valueOf(archivedAt));
+
+        int copied = jdbcTemplate.update(COPY_TO_ARCHIVE, params);
+        int deleted = jdbcTemplate.update(DELETE_FROM_HOT, params);
+        if (copied != deleted) {
+            throw new IllegalStateException("Archivado inconsistente: " + copied + " copiadas, " + deleted + " borradas");
+        }
+        return deleted;
+    }
+
+    public Optional<OperationStatus> findStatusById(Long id) {
+        return jdbcTemplate.queryForList(SELECT_STATUS, Map.of("id", id), String.class).stream()
+                .findFirst()
+                .map(OperationStatus::valueOf);
+    }
+
+    public Optional<OperationRequest> findById(Long id) {
+        return jdbcTemplate.query(SELECT_BY_ID, Map.of("id", id), OperationRowMappers.OPERATION_REQUEST)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Página de operaciones archivadas de un usuario, sin payload ni resultado
+     */
+    public List<OperationSummary> findUserSummaries(Long userId, Collection<OperationStatus> statuses,
+                                                    LocalDateTime cursorSubmittedAt, Long cursorId, int limit) {
+        List<String> archivable = statuses.stream()
+                .map(Enum::name)
+                .filter(TERMINAL_STATUSES::contains)
+                .toList();
+        if (archivable.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("statuses", archivable)
+                .addValue("limit", limit);
+        boolean withCursor = cursorSubmittedAt != null;
+        if (withCursor) {
+            params.addValue("cursorSubmittedAt", Timestamp.valueOf(cursorSubmittedAt))
+                    .addValue("cursorId", cursorId);
+        }
+        return jdbcTemplate.query(
+                OperationRowMappers.userSummaryPageQuery("operation_requests_archive", withCursor),
+                params, OperationRowMappers.SUMMARY);
+    }
+
+    /**
+     * Conteo de operaciones archivadas por cola y estado
+     */
+    public Map<String, Map<OperationStatus, Long>> countGroupedByQueueNameAndStatus() {
+        Map<String, Map<OperationStatus, Long>> counts = new HashMap<>();
+        jdbcTemplate.query(COUNT_GROUPED, rs -> {
+            counts.computeIfAbsent(rs.getString("queue_name"), q -> new EnumMap<>(OperationStatus.class))
+                    .put(OperationStatus.valueOf(rs.getString("status")), rs.getLong("total"));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.queuemanagermodule.repository;
+
+import com.example.queuemanagermodule.model.OperationRequest;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationSummary;
+import com.example.queuemanagermodule.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Operaciones por lotes sobre operation_requests que JPA no puede agrupar.
+ * Con IDENTITY, Hibernate desactiva el batching de inserts, así que los lotes
+ * se escriben con JDBC en la misma transacción que el resto del servicio.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OperationRequestJdbcRepository {
+
+    private static final String INSERT_OPERATION =
+            "INSERT INTO operation_requests (operation_type, cluster_type, zone_id, user_id, priority, " +
+            "submitted_at, status, retry_count, max_retries, queue_name, payload_json, payload_blob, routing_key) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_STATUS =
+            "UPDATE operation_requests SET status = ?, started_at = ?, completed_at = ?, error_message = ?, " +
+            "result_json = ?, result_blob = ?, retry_count = ? WHERE id = ? AND status = ? AND COALESCE(retry_count, 0) = ?";
+
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO operation_outbox (operation_id, topic_name, queue_item_json, status, attempts, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Inserta las solicitudes en un único lote y asigna a cada una el ID generado
+     */
+    public void insertAll(List<OperationRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_OPERATION, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OperationRequest request = requests.get(i);
+                        ps.setString(1, request.getOperationType().name());
+                        ps.setString(2, request.getClusterType().name());
+                        ps.setInt(3, request.getZoneId());
+                        ps.setLong(4, request.getUserId());
+                        ps.setString(5, request.getPriority().name());
+                        ps.setTimestamp(6, Timestamp.valueOf(request.getSubmittedAt()));
+                        ps.setString(7, request.getStatus().name());
+                        ps.setInt(8, request.getRetryCount());
+                        ps.setObject(9, request.getMaxRetries(), Types.INTEGER);
+                        ps.setString(10, request.getQueueName());
+                        ps.setString(11, request.getPayloadJson());
+                        ps.setBytes(12, request.getPayloadBlob());
+                        ps.setString(13, request.getRoutingKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return requests.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != requests.size()) {
+            throw new IllegalStateException("Se esperaban " + requests.size() +
+                    " IDs generados y se obtuvieron " + keys.size());
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            requests.get(i).setId(id.longValue());
+        }
+    }
+
+    /**
+     * Inserta los eventos de outbox en un único lote
+     */
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OutboxEvent event = events.get(i);
+                ps.setLong(1, event.getOperationId());
+                ps.setString(2, event.getTopicName());
+                ps.setString(3, event.getQueueItemJson());
+                ps.setString(4, event.getStatus().name());
+                ps.setInt(5, event.getAttempts());
+                ps.setTimestamp(6, Timestamp.valueOf(event.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+
+    /**
+     * Página de operaciones de un usuario sin las columnas JSON, posterior al cursor
+     * (submittedAt, id) si se indica. Usa idx_opreq_user_submitted.
+     */
+    public List<OperationSummary> findUserSummaries(Long userId, Collection<OperationStatus> statuses,
+                                                    LocalDateTime cursorSubmittedAt, Long cursorId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("statuses", statuses.stream().map(Enum::name).toList())
+                .addValue("limit", limit);
+        boolean withCursor = cursorSubmittedAt != null;
+        if (withCursor) {
+            params.addValue("cursorSubmittedAt", Timestamp.valueOf(cursorSubmittedAt))
+                    .addValue("cursorId", cursorId);
+        }
+        return namedParameterJdbcTemplate.query(
+                OperationRowMappers.userSummaryPageQuery("operation_requests", withCursor),
+                params, OperationRowMappers.SUMMARY);
+    }
+
+    /**
+     * Operaciones PENDING de un usuario, bloqueadas hasta el final de la transacción
+     */
+    public List<OperationSummary> findPendingByUserIdForUpdate(Long userId) {
+        return namedParameterJdbcTemplate.query(
+                "SELECT " + OperationRowMappers.SUMMARY_COLUMNS + " FROM operation_requests " +
+                        "WHERE user_id = :value AND status = 'PENDING' FOR UPDATE",
+                Map.of("value", userId), OperationRowMappers.SUMMARY);
+    }
+
+    /**
+     * Operaciones PENDING con la clave de enrutado indicada, bloqueadas hasta el final de la transacción
+     */
+    public List<OperationSummary> findPendingByRoutingKeyForUpdate(String routingKey) {
+        return namedParameterJdbcTemplate.query(
+                "SELECT " + OperationRowMappers.SUMMARY_COLUMNS + " FROM operation_requests " +
+                        "WHERE routing_key = :value AND status = 'PENDING' FOR UPDATE",
+                Map.of("value", routingKey), OperationRowMappers.SUMMARY);
+    }
+
+    /**
+     * Operaciones PENDING con la clave de enrutado indicada encoladas desde since, las
+     * más recientes primero. Lectura sin bloqueo: cada cambio posterior se confirma por PK.
+     */
+    public List<OperationRequest> findRecentPendingByRoutingKey(String routingKey, LocalDateTime since, int limit) {
+        return namedParameterJdbcTemplate.query(
+                "SELECT " + OperationRowMappers.ALL_COLUMNS + " FROM operation_requests " +
+                        "WHERE routing_key = :routingKey AND status = 'PENDING' AND submitted_at >= :since " +
+                        "ORDER BY id DESC LIMIT :limit",
+                new MapSqlParameterSource()
+                        .addValue("routingKey", routingKey)
+                        .addValue("since", Timestamp.valueOf(since))
+                        .addValue("limit", limit),
+                OperationRowMappers.OPERATION_REQUEST);
+    }
+
+    /**
+     * Bloquea en modo compartido la operación si sigue PENDING, hasta el final de la
+     * transacción. Busca por la PK completa para no bloquear huecos del índice.
+     */
+    public boolean lockIfPending(OperationRequest request) {
+        return !jdbcTemplate.queryForList(
+                "SELECT id FROM operation_requests WHERE id = ? AND submitted_at = ? AND status = 'PENDING' FOR SHARE",
+                Long.class, request.getId(), Timestamp.valueOf(request.getSubmittedAt())).isEmpty();
+    }
+
+    /**
+     * Cancela la operación si sigue PENDING, dejando la referencia a la que la reemplaza
+     */
+    public boolean supersedeIfPending(OperationRequest request, Long winnerId, String errorMessage,
+                                      LocalDateTime completedAt) {
+        return jdbcTemplate.update(
+                "UPDATE operation_requests SET status = 'CANCELLED', superseded_by = ?, error_message = ?, " +
+                        "completed_at = ? WHERE id = ? AND submitted_at = ? AND status = 'PENDING'",
+                winnerId, errorMessage, Timestamp.valueOf(completedAt), request.getId(),
+                Timestamp.valueOf(request.getSubmittedAt())) > 0;
+    }
+
+    /**
+     * Cancela los eventos de outbox aún no publicados de la operación
+     */
+    public int cancelOutboxEvents(Long operationId, LocalDateTime now) {
+        return jdbcTemplate.update(
+                "UPDATE operation_outbox SET status = 'CANCELLED', published_at = ? " +
+                        "WHERE operation_id = ? AND status = 'PENDING'",
+                Timestamp.valueOf(now), operationId);
+    }
+
+    /**
+     * Cancela los eventos de outbox aún no publicados de las operaciones indicadas
+     */
+    public int cancelOutboxEvents(Collection<Long> operationIds, LocalDateTime now) {
+        if (operationIds.isEmpty()) {
+            return 0;
+        }
+        return namedParameterJdbcTemplate.update(
+                "UPDATE operation_outbox SET status = 'CANCELLED', published_at = :now " +
+                        "WHERE operation_id IN (:ids) AND status = 'PENDING'",
+                new MapSqlParameterSource()
+                        .addValue("now", Timestamp.valueOf(now))
+                        .addValue("ids", operationIds));
+    }
+
+    /**
+     * Hora actual de la BD en UTC, la misma referencia que usa el trigger de terminal_at
+     */
+    public LocalDateTime databaseUtcNow() {
+        return jdbcTemplate.queryForObject("SELECT UTC_TIMESTAMP(6)", Timestamp.class).toLocalDateTime();
+    }
+
+    /**
+     * Resumen de las operaciones indicadas, indexado por ID
+     */
+    public Map<Long, OperationSummary> findSummariesByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return namedParameterJdbcTemplate.query(
+                        "SELECT " + OperationRowMappers.SUMMARY_COLUMNS + " FROM operation_requests WHERE id IN (:ids)",
+                        Map.of("ids", ids), OperationRowMappers.SUMMARY)
+                .stream()
+                .collect(Collectors.toMap(OperationSummary::getId, Function.identity()));
+    }
+
+    /**
+     * Aplica en un único lote el estado, marcas de tiempo, error, resultado y reintentos de cada
+     * solicitud, solo si su estado e intento (retry_count) en BD siguen siendo los esperados.
+     * Devuelve qué posiciones se aplicaron.
+     */
+    public boolean[] updateStatuses(List<OperationRequest> requests, List<OperationStatus> expectedStatuses,
+                                    List<Integer> expectedRetryCounts) {
+        boolean[] applied = new boolean[requests.size()];
+        if (requests.isEmpty()) {
+            return applied;
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OperationRequest request = requests.get(i);
+                ps.setString(1, request.getStatus().name());
+                ps.setTimestamp(2, request.getStartedAt() != null ? Timestamp.valueOf(request.getStartedAt()) : null);
+                ps.setTimestamp(3, request.getCompletedAt() != null ? Timestamp.valueOf(request.getCompletedAt()) : null);
+                ps.setString(4, request.getErrorMessage());
+                ps.setString(5, request.getResultJson());
+                ps.setBytes(6, request.getResultBlob());
+                ps.setObject(7, request.getRetryCount(), Types.INTEGER);
+                ps.setLong(8, request.getId());
+                ps.setString(9, expectedStatuses.get(i).name());
+                ps.setInt(10, expectedRetryCounts.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return requests.size();
+            }
+        });
+
+        List<Integer> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            applied[i] = counts[i] > 0;
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(i);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            confirmApplied(requests, unknown, applied);
+        }
+        return applied;
+    }
+
+    /**
+     * Si el driver no informa el conteo (SUCCESS_NO_INFO, posible con
+     * rewriteBatchedStatements) se relee la fila en la misma transacción. La lectura
+     * consistente ve los cambios propios pero no los confirmados por otras
+     * transacciones después de la primera lectura, así que la fila solo muestra el
+     * estado e intento nuevos si fue este UPDATE el que se aplicó.
+     */
+    private void confirmApplied(List<OperationRequest> requests, List<Integer> positions, boolean[] applied) {
+        Map<Long, OperationSummary> rows = findSummariesByIds(
+                positions.stream().map(i -> requests.get(i).getId()).toList());
+        for (int i : positions) {
+            OperationRequest request = requests.get(i);
+            OperationSummary row = rows.get(request.getId());
+            applied[i] = row != null && row.getStatus() == request.getStatus()
+                    && Objects.equals(row.getRetryCount(), request.getRetryCount());
+        }
+    }
+}
@@ -3,15 +3,24 @@ package com.example.queuemanagermodule.repository;
 import com.example.queuemanagermodule.model.OperationRequest;
 import com.example.queuemanagermodule.model.OperationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OperationRequestRepository extends JpaRepository<OperationRequest, Long> {
 
+    /**
+     * Solo el estado, sin hidratar la entidad (ni su payload)
+     */
+    @Query("SELECT o.status FROM OperationRequest o WHERE o.id = ?1")
+    Optional<OperationStatus> findStatusById(Long id);
+
     List<OperationRequest> findByQueueNameAndStatus(String queueName, OperationStatus status);
 
     List<OperationRequest> findByStatusAndStartedAtBefore(OperationStatus status, LocalDateTime time);
@@ -26,4 +35,33 @@ public interface OperationRequestRepository extends JpaRepository<OperationReque
 
     @Query("SELECT AVG(TIMESTAMPDIFF(SECOND, o.startedAt, o.completedAt)) FROM OperationRequest o WHERE o.queueName = ?1 AND o.status IN ('COMPLETED', 'FAILED') AND o.startedAt IS NOT NULL AND o.completedAt IS NOT NULL")
     Double calculateAverageProcessingTime(String queueName);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE OperationRequest o SET o.status = ?2, o.errorMessage = ?3, o.completedAt = ?4 WHERE o.id IN ?1 AND o.status = ?5")
+    int updateStatusForIds(Collection<Long> ids, OperationStatus newStatus, String errorMessage,
+                           LocalDateTime completedAt, OperationStatus expectedStatus);
+
+    @Query("SELECT o.queueName AS queueName, o.status AS status, COUNT(o) AS total FROM OperationRequest o GROUP BY o.queueName, o.status")
+    List<QueueStatusCount> countGroupedByQueueNameAndStatus();
+
+    @Query("SELECT o.queueName AS queueName, AVG(TIMESTAMPDIFF(SECOND, o.submittedAt, o.startedAt)) AS averageSeconds FROM OperationRequest o WHERE o.status IN ('IN_PROGRESS', 'COMPLETED', 'FAILED') GROUP BY o.queueName")
+    List<QueueAverage> calculateAverageWaitTimeByQueue();
+
+    @Query("SELECT o.queueName AS queueName, AVG(TIMESTAMPDIFF(SECOND, o.startedAt, o.completedAt)) AS averageSeconds FROM OperationRequest o WHERE o.status IN ('COMPLETED', 'FAILED') AND o.startedAt IS NOT NULL AND o.completedAt IS NOT NULL GROUP BY o.queueName")
+    List<QueueAverage> calculateAverageProcessingTimeByQueue();
+
+    /**
+     * Rollup en una sola pasada: operaciones activas (PENDING/IN_PROGRESS) más las
+     * terminadas (COMPLETED/FAILED) cuyo terminalAt, asignado por la BD, cae en (from, to].
+     */
+    @Query("SELECT o.queueName AS queueName, o.status AS status, COUNT(o) AS total, " +
+            "COUNT(o.startedAt) AS waitSamples, " +
+            "SUM(TIMESTAMPDIFF(SECOND, o.submittedAt, o.startedAt)) AS waitSumSeconds, " +
+            "SUM(CASE WHEN o.startedAt IS NOT NULL AND o.completedAt IS NOT NULL THEN 1 ELSE 0 END) AS processingSamples, " +
+            "SUM(TIMESTAMPDIFF(SECOND, o.startedAt, o.completedAt)) AS processingSumSeconds " +
+            "FROM OperationRequest o " +
+            "WHERE o.status IN ('PENDING', 'IN_PROGRESS') " +
+            "OR (o.status IN ('COMPLETED', 'FAILED') AND o.terminalAt > ?1 AND o.terminalAt <= ?2) " +
+            "GROUP BY o.queueName, o.status")
+    List<QueueStatusRollup> rollupActiveAndCompletedBetween(LocalDateTime from, LocalDateTime to);
+}
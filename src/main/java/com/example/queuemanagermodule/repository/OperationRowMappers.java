@@ -0,0 +1,82 @@
+package com.example.queuemanagermodule.repository;
+
+import com.example.queuemanagermodule.model.*;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * RowMappers compartidos por operation_requests y operation_requests_archive,
+ * que tienen las mismas columnas
+ */
+final class OperationRowMappers {
+
+    static final String SUMMARY_COLUMNS =
+            "id, operation_type, cluster_type, zone_id, user_id, priority, submitted_at, started_at, " +
+            "completed_at, status, error_message, retry_count, max_retries, queue_name, superseded_by";
+
+    static final String ALL_COLUMNS = SUMMARY_COLUMNS + ", routing_key, payload_json, result_json, payload_blob, result_blob";
+
+    static final RowMapper<OperationSummary> SUMMARY = (rs, rowNum) -> OperationSummary.builder()
+            .id(rs.getLong("id"))
+            .operationType(OperationType.valueOf(rs.getString("operation_type")))
+            .clusterType(ClusterType.valueOf(rs.getString("cluster_type")))
+            .zoneId(rs.getInt("zone_id"))
+            .userId(rs.getLong("user_id"))
+            .priority(Priority.valueOf(rs.getString("priority")))
+            .submittedAt(toLocalDateTime(rs.getTimestamp("submitted_at")))
+            .startedAt(toLocalDateTime(rs.getTimestamp("started_at")))
+            .completedAt(toLocalDateTime(rs.getTimestamp("completed_at")))
+            .status(OperationStatus.valueOf(rs.getString("status")))
+            .errorMessage(rs.getString("error_message"))
+            .retryCount(rs.getObject("retry_count", Integer.class))
+            .maxRetries(rs.getObject("max_retries", Integer.class))
+            .queueName(rs.getString("queue_name"))
+            .supersededBy(rs.getObject("superseded_by", Long.class))
+            .build();
+
+    static final RowMapper<OperationRequest> OPERATION_REQUEST = (rs, rowNum) -> OperationRequest.builder()
+            .id(rs.getLong("id"))
+            .operationType(OperationType.valueOf(rs.getString("operation_type")))
+            .clusterType(ClusterType.valueOf(rs.getString("cluster_type")))
+            .zoneId(rs.getInt("zone_id"))
+            .userId(rs.getLong("user_id"))
+            .priority(Priority.valueOf(rs.getString("priority")))
+            .submittedAt(toLocalDateTime(rs.getTimestamp("submitted_at")))
+            .startedAt(toLocalDateTime(rs.getTimestamp("started_at")))
+            .completedAt(toLocalDateTime(rs.getTimestamp("completed_at")))
+            .status(OperationStatus.valueOf(rs.getString("status")))
+            .errorMessage(rs.getString("error_message"))
+            .retryCount(rs.getObject("retry_count", Integer.class))
+            .maxRetries(rs.getObject("max_retries", Integer.class))
+            .queueName(rs.getString("queue_name"))
+            .supersededBy(rs.getObject("superseded_by", Long.class))
+            .routingKey(rs.getString("routing_key"))
+            .payloadJson(rs.getString("payload_json"))
+            .resultJson(rs.getString("result_json"))
+            .payloadBlob(rs.getBytes("payload_blob"))
+            .resultBlob(rs.getBytes("result_blob"))
+            .build();
+
+    private OperationRowMappers() {
+    }
+
+    /**
+     * Página de resumen de un usuario ordenada por (submitted_at, id) descendente.
+     * Sin cursor arranca desde la más reciente.
+     */
+    static String userSummaryPageQuery(String table, boolean withCursor) {
+        return "SELECT " + SUMMARY_COLUMNS + " FROM " + table + " " +
+                "WHERE user_id = :userId AND status IN (:statuses) " +
+                (withCursor ? "AND (submitted_at < :cursorSubmittedAt " +
+                        "OR (submitted_at = :cursorSubmittedAt AND id < :cursorId)) " : "") +
+                "ORDER BY submitted_at DESC, id DESC LIMIT :limit";
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.queuemanagermodule.repository;
+
+import com.example.queuemanagermodule.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Bloquea el siguiente lote de eventos pendientes cuyo próximo intento ya venció.
+     * SKIP LOCKED permite que varias instancias del relay drenen el outbox en paralelo
+     * sin pisarse.
+     */
+    @Query(value = "SELECT * FROM operation_outbox WHERE status = 'PENDING' " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= ?2) ORDER BY id LIMIT ?1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> lockNextPendingBatch(int limit, LocalDateTime now);
+
+    /**
+     * Reclama los eventos hasta leaseUntil: ningún relay los vuelve a tomar antes
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = ?2 WHERE e.id IN ?1")
+    int claim(Collection<Long> ids, LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PUBLISHED', e.publishedAt = ?2, e.errorMessage = NULL, " +
+            "e.nextAttemptAt = NULL WHERE e.id IN ?1 AND e.status = 'PENDING'")
+    int markPublished(Collection<Long> ids, LocalDateTime publishedAt);
+
+    /**
+     * Registra un envío fallido y cuándo reintentarlo, si el evento sigue pendiente
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = ?2, e.errorMessage = ?3, e.nextAttemptAt = ?4 " +
+            "WHERE e.id = ?1 AND e.status = 'PENDING'")
+    int recordFailure(Long id, int attempts, String errorMessage, LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'FAILED', e.attempts = ?2, e.errorMessage = ?3, " +
+            "e.nextAttemptAt = NULL WHERE e.id = ?1 AND e.status = 'PENDING'")
+    int markFailed(Long id, int attempts, String errorMessage);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status IN ('PUBLISHED', 'CANCELLED') AND e.publishedAt < ?1")
+    int deletePublishedBefore(LocalDateTime time);
+}
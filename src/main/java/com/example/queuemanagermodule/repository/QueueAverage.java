@@ -0,0 +1,9 @@
+package com.example.queuemanagermodule.repository;
+
+/**
+ * Proyección de un promedio en segundos agrupado por cola
+ */
+public interface QueueAverage {
+    String getQueueName();
+    Double getAverageSeconds();
+}
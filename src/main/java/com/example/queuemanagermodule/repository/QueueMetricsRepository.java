@@ -17,4 +17,11 @@ public interface QueueMetricsRepository extends JpaRepository<QueueMetrics, Long
 
     @Query("SELECT q FROM QueueMetrics q WHERE q.queueName = ?1 AND q.recordDate BETWEEN ?2 AND ?3 ORDER BY q.recordDate")
     List<QueueMetrics> findByQueueNameAndTimeRange(String queueName, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * Último snapshot de cada cola, usado como checkpoint del rollup incremental
+     */
+    @Query("SELECT q FROM QueueMetrics q WHERE q.recordDate = " +
+            "(SELECT MAX(q2.recordDate) FROM QueueMetrics q2 WHERE q2.queueName = q.queueName)")
+    List<QueueMetrics> findLatestPerQueue();
 }
@@ -0,0 +1,12 @@
+package com.example.queuemanagermodule.repository;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+
+/**
+ * Proyección de un conteo agrupado por cola y estado
+ */
+public interface QueueStatusCount {
+    String getQueueName();
+    OperationStatus getStatus();
+    Long getTotal();
+}
@@ -0,0 +1,17 @@
+package com.example.queuemanagermodule.repository;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+
+/**
+ * Proyección del rollup agrupado por cola y estado: conteo más las sumas y
+ * cantidad de muestras de los tiempos de espera y de procesamiento.
+ */
+public interface QueueStatusRollup {
+    String getQueueName();
+    OperationStatus getStatus();
+    Long getTotal();
+    Long getWaitSamples();
+    Long getWaitSumSeconds();
+    Long getProcessingSamples();
+    Long getProcessingSumSeconds();
+}
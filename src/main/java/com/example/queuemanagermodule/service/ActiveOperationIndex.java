@@ -0,0 +1,156 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.util.LongByteHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Índice en memoria del estado de las operaciones activas (PENDING/IN_PROGRESS),
+ * indexado por el ID primitivo. Se actualiza con cada transición confirmada y las
+ * operaciones salen solas al llegar a un estado terminal. Se reconstruye desde la
+ * BD al arrancar y periódicamente, para recoger cambios hechos fuera de esta
+ * instancia. Las lecturas usan lectura optimista y no bloquean.
+ * Con varias instancias una entrada puede seguir PENDING/IN_PROGRESS aunque otra
+ * instancia ya la haya terminado, así que solo responde por sí mismo cuando
+ * queue.active-index.authoritative=true (todas las escrituras pasan por esta instancia).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ActiveOperationIndex {
+
+    private static final OperationStatus[] STATUSES = OperationStatus.values();
+
+    private static final String SELECT_ACTIVE =
+            "SELECT id, status FROM operation_requests WHERE status IN ('PENDING', 'IN_PROGRESS')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${queue.active-index.authoritative:false}")
+    private boolean authoritative;
+
+    private final StampedLock lock = new StampedLock();
+    private final Object rebuildMonitor = new Object();
+
+    private LongByteHashMap statuses = new LongByteHashMap(1024);
+
+    // Transiciones aplicadas durante una reconstrucción; se reaplican sobre el índice nuevo
+    private List<long[]> journal;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OperationStatusChangedEvent event) {
+        if (event.getOperationId() == null || event.getNewStatus() == null) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            apply(statuses, event.getOperationId(), event.getNewStatus().ordinal());
+            if (journal != null) {
+                journal.add(new long[]{event.getOperationId(), event.getNewStatus().ordinal()});
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Estado de la operación si está activa; null si no está en el índice
+     */
+    public OperationStatus get(long operationId) {
+        long stamp = lock.tryOptimisticRead();
+        byte value = statuses.get(operationId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = statuses.get(operationId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value != LongByteHashMap.MISSING ? STATUSES[value] : null;
+    }
+
+    /**
+     * Si el índice refleja todas las transiciones; si no, sus entradas deben confirmarse en BD
+     */
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return statuses.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el índice desde la BD sin bloquear las lecturas mientras se carga
+     */
+    @Scheduled(fixedDelayString = "${queue.active-index.refresh-interval-ms:30000}",
+            initialDelayString = "${queue.active-index.refresh-interval-ms:30000}")
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            setJournal(new ArrayList<>());
+            try {
+                LongByteHashMap fresh = new LongByteHashMap(Math.max(1024, size()));
+                jdbcTemplate.query(SELECT_ACTIVE, rs -> {
+                    apply(fresh, rs.getLong(1), OperationStatus.valueOf(rs.getString(2)).ordinal());
+                });
+
+                long stamp = lock.writeLock();
+                try {
+                    for (long[] transition : journal) {
+                        apply(fresh, transition[0], (int) transition[1]);
+                    }
+                    statuses = fresh;
+                    journal = null;
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                log.debug("Índice de operaciones activas reconstruido: {} operaciones", fresh.size());
+            } catch (Exception e) {
+                setJournal(null);
+                log.error("Error reconstruyendo el índice de operaciones activas", e);
+            }
+        }
+    }
+
+    private void setJournal(List<long[]> value) {
+        long stamp = lock.writeLock();
+        try {
+            journal = value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static void apply(LongByteHashMap map, long operationId, int statusOrdinal) {
+        OperationStatus status = STATUSES[statusOrdinal];
+        if (status == OperationStatus.PENDING || status == OperationStatus.IN_PROGRESS) {
+            map.put(operationId, (byte) statusOrdinal);
+        } else {
+            map.remove(operationId);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.ClusterType;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.model.QueueRoute;
+import com.example.queuemanagermodule.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión del encolado. Cada operación consume un token de tres buckets:
+ * el de su usuario, el de su (cluster, zona) y el de su prioridad final
+ * (queue.admission.{user,zone,priority.*}.rate-per-second y burst; tasa 0 = sin
+ * límite). Si alguno está vacío se rechaza con el tiempo que falta para el siguiente
+ * token y se devuelven los ya consumidos. Un lote se cobra de una vez, todo o nada,
+ * así que cada burst debe ser al menos queue.batch.max-size.
+ * Además, mientras las operaciones PENDING de una zona superan
+ * queue.admission.shed-low-pending-threshold, las de prioridad LOW se descartan sin
+ * consumir tokens. La profundidad sale de {@link QueueCounters}, sin consultar la BD.
+ * Los límites son por instancia. Los buckets de usuario sin uso se descartan
+ * periódicamente, solo cuando ya están llenos.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    private final QueueCatalog queueCatalog;
+    private final QueueCounters queueCounters;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double userRate;
+    private final double userBurst;
+    private final long shedLowPendingThreshold;
+    private final long shedRetryAfterSeconds;
+
+    private final Map<Long, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<ClusterType, Map<Integer, TokenBucket>> zoneBuckets = new EnumMap<>(ClusterType.class);
+    private final Map<Priority, TokenBucket> priorityBuckets = new EnumMap<>(Priority.class);
+
+    @Value("${queue.admission.user.idle-eviction-ms:600000}")
+    private long idleEvictionMs;
+
+    public AdmissionControl(QueueCatalog queueCatalog, QueueCounters queueCounters,
+                            MeterRegistry meterRegistry, Environment environment,
+                            @Value("${queue.admission.enabled:false}") boolean enabled,
+                            @Value("${queue.admission.user.rate-per-second:0}") double userRate,
+                            @Value("${queue.admission.user.burst:0}") double userBurst,
+                            @Value("${queue.admission.zone.rate-per-second:0}") double zoneRate,
+                            @Value("${queue.admission.zone.burst:0}") double zoneBurst,
+                            @Value("${queue.admission.shed-low-pending-threshold:0}") long shedLowPendingThreshold,
+                            @Value("${queue.admission.shed-retry-after-seconds:30}") long shedRetryAfterSeconds) {
+        this.queueCatalog = queueCatalog;
+        this.queueCounters = queueCounters;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.userRate = userRate;
+        this.userBurst = Math.max(userBurst, 1);
+        this.shedLowPendingThreshold = shedLowPendingThreshold;
+        this.shedRetryAfterSeconds = shedRetryAfterSeconds;
+
+        // Las zonas y prioridades son fijas: sus buckets se crean una vez
+        long now = System.nanoTime();
+        if (zoneRate > 0) {
+            for (QueueRoute route : queueCatalog.routes()) {
+                zoneBuckets.computeIfAbsent(route.getClusterType(), c -> new HashMap<>())
+                        .computeIfAbsent(route.getZoneId(), z -> new TokenBucket(zoneRate, Math.max(zoneBurst, 1), now));
+            }
+        }
+        for (Priority priority : Priority.values()) {
+            String prefix = "queue.admission.priority." + priority.name().toLowerCase(Locale.ROOT) + ".";
+            double rate = environment.getProperty(prefix + "rate-per-second", Double.class, 0d);
+            if (rate > 0) {
+                double burst = environment.getProperty(prefix + "burst", Double.class, rate);
+                priorityBuckets.put(priority, new TokenBucket(rate, Math.max(burst, 1), now));
+            }
+        }
+    }
+
+    /**
+     * Admite la operación o la rechaza
+     * @throws AdmissionRejectedException si se supera algún límite o se está descartando LOW
+     */
+    public void admit(Long userId, ClusterType clusterType, Integer zoneId, Priority priority) {
+        Ticket ticket = new Ticket(userId, clusterType, zoneId, priority);
+        checkShedding(ticket);
+        admitAll(List.of(ticket));
+    }
+
+    /**
+     * Rechaza la operación si es LOW y su zona supera el umbral de PENDING; no consume tokens
+     * @throws AdmissionRejectedException si se está descartando LOW en la zona
+     */
+    public void checkShedding(Ticket ticket) {
+        if (!enabled || ticket.priority() != Priority.LOW || shedLowPendingThreshold <= 0) {
+            return;
+        }
+        long pending = zonePending(ticket.clusterType(), ticket.zoneId());
+        if (pending >= shedLowPendingThreshold) {
+            reject("shed", ticket.priority(), shedRetryAfterSeconds * 1_000_000_000L,
+                    "Zona " + ticket.clusterType() + "/" + ticket.zoneId() + " saturada (" + pending +
+                            " pendientes), no se admiten operaciones LOW");
+        }
+    }
+
+    /**
+     * Cobra todas las operaciones a la vez: cada bucket implicado entrega todos los
+     * tokens que le tocan o ninguno, y si uno no alcanza se devuelven los de los demás.
+     * Así un lote se admite o se rechaza entero.
+     * @throws AdmissionRejectedException si algún bucket no tiene tokens suficientes
+     * @throws IllegalArgumentException si el lote pide más tokens que la ráfaga de algún bucket
+     */
+    public void admitAll(List<Ticket> tickets) {
+        if (!enabled || tickets.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        Map<TokenBucket, Charge> charges = new LinkedHashMap<>();
+        for (Ticket ticket : tickets) {
+            if (userRate > 0) {
+                charge(charges, userBucket(ticket.userId(), now), "user", ticket.priority(),
+                        "Límite de operaciones por usuario superado para el usuario " + ticket.userId());
+            }
+            Map<Integer, TokenBucket> clusterZones = zoneBuckets.get(ticket.clusterType());
+            TokenBucket zoneBucket = clusterZones != null ? clusterZones.get(ticket.zoneId()) : null;
+            if (zoneBucket != null) {
+                charge(charges, zoneBucket, "zone", ticket.priority(),
+                        "Límite de operaciones de la zona " + ticket.clusterType() + "/" + ticket.zoneId() + " superado");
+            }
+            TokenBucket priorityBucket = priorityBuckets.get(ticket.priority());
+            if (priorityBucket != null) {
+                charge(charges, priorityBucket, "priority", ticket.priority(),
+                        "Límite de operaciones de prioridad " + ticket.priority() + " superado");
+            }
+        }
+
+        List<Map.Entry<TokenBucket, Charge>> acquired = new ArrayList<>(charges.size());
+        for (Map.Entry<TokenBucket, Charge> entry : charges.entrySet()) {
+            Charge charge = entry.getValue();
+            long wait;
+            try {
+                wait = entry.getKey().tryAcquire(now, charge.permits);
+            } catch (IllegalArgumentException e) {
+                refund(acquired);
+                throw e;
+            }
+            if (wait > 0) {
+                refund(acquired);
+                reject(charge.reason, charge.priority, wait, charge.message);
+            }
+            acquired.add(entry);
+        }
+    }
+
+    /**
+     * Descarta los buckets de usuario llenos y sin uso durante queue.admission.user.idle-eviction-ms
+     */
+    @Scheduled(fixedDelayString = "${queue.admission.user.idle-eviction-ms:600000}",
+            initialDelayString = "${queue.admission.user.idle-eviction-ms:600000}")
+    public void evictIdleUsers() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        int before = userBuckets.size();
+        userBuckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now, idleNanos));
+        int evicted = before - userBuckets.size();
+        if (evicted > 0) {
+            log.debug("Descartados {} buckets de admisión de usuarios inactivos", evicted);
+        }
+    }
+
+    private long zonePending(ClusterType clusterType, Integer zoneId) {
+        long pending = 0;
+        for (Priority priority : Priority.values()) {
+            String queueName = queueCatalog.route(clusterType, zoneId, priority).getQueueName();
+            pending += queueCounters.get(queueName, OperationStatus.PENDING);
+        }
+        return pending;
+    }
+
+    private TokenBucket userBucket(Long userId, long now) {
+        TokenBucket bucket = userBuckets.get(userId);
+        if (bucket == null) {
+            bucket = userBuckets.computeIfAbsent(userId, id -> new TokenBucket(userRate, userBurst, now));
+        }
+        return bucket;
+    }
+
+    private static void charge(Map<TokenBucket, Charge> charges, TokenBucket bucket, String reason,
+                               Priority priority, String message) {
+        Charge charge = charges.get(bucket);
+        if (charge == null) {
+            charges.put(bucket, new Charge(reason, priority, message));
+        } else {
+            charge.permits++;
+        }
+    }
+
+    private static void refund(List<Map.Entry<TokenBucket, Charge>> acquired) {
+        for (Map.Entry<TokenBucket, Charge> entry : acquired) {
+            entry.getKey().refund(entry.getValue().permits);
+        }
+    }
+
+    private void reject(String reason, Priority priority, long waitNanos, String message) {
+        Counter.builder("queue.admission.rejected")
+                .description("Encolados rechazados por el control de admisión")
+                .tag("reason", reason)
+                .tag("priority", priority.name())
+                .register(meterRegistry)
+                .increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        throw new AdmissionRejectedException(reason, retryAfterSeconds, message);
+    }
+
+    /**
+     * Operación a admitir, ya con su prioridad final
+     */
+    public record Ticket(Long userId, ClusterType clusterType, Integer zoneId, Priority priority) {
+    }
+
+    /**
+     * Tokens que se cobran a un bucket y motivo del rechazo si no alcanzan
+     */
+    private static final class Charge {
+        private final String reason;
+        private final Priority priority;
+        private final String message;
+        private int permits = 1;
+
+        private Charge(String reason, Priority priority, String message) {
+            this.reason = reason;
+            this.priority = priority;
+            this.message = message;
+        }
+    }
+}
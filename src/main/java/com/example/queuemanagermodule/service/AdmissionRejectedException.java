@@ -0,0 +1,19 @@
+package com.example.queuemanagermodule.service;
+
+import lombok.Getter;
+
+/**
+ * Encolado rechazado por el control de admisión; se responde 429 con Retry-After
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final String reason;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String reason, long retryAfterSeconds, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.repository.OperationArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tarea de retención: mueve a operation_requests_archive las operaciones terminadas
+ * más antiguas que queue.archive.min-age-hours. Cada lote es una transacción corta
+ * para no retener bloqueos sobre la tabla caliente.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "queue.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class ArchiveService {
+
+    private final OperationArchiveRepository operationArchiveRepository;
+
+    @Value("${queue.archive.min-age-hours:24}")
+    private long minAgeHours;
+
+    @Value("${queue.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${queue.archive.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${queue.archive.interval-ms:300000}",
+            initialDelayString = "${queue.archive.interval-ms:300000}")
+    public void archiveFinishedOperations() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(minAgeHours);
+        int archived = 0;
+
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<Long> ids = operationArchiveRepository.findArchivableIds(cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                archived += operationArchiveRepository.moveToArchive(ids, LocalDateTime.now());
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error archivando operaciones terminadas", e);
+        }
+
+        if (archived > 0) {
+            log.info("Archivadas {} operaciones terminadas antes de {}", archived, cutoff);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationCancellation;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.util.LongBloomFilter;
+import com.example.queuemanagermodule.util.LongByteHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Cancelaciones recientes (queue.cancel.window-hours) para que los workers no
+ * ejecuten operaciones ya canceladas. Cada cancelación confirmada se publica en
+ * el tópico compactado de cancelaciones y se añade a un conjunto exacto y a un
+ * filtro de Bloom, que los workers descargan (GET /api/queue/cancellations/bloom)
+ * para comprobar localmente antes de empezar: un negativo es definitivo y solo
+ * los positivos necesitan la consulta exacta. Ambos se reconstruyen desde la BD
+ * periódicamente, lo que además descarta las cancelaciones fuera de la ventana.
+ */
+@Component
+@Slf4j
+public class CancellationRegistry {
+
+    private static final String SELECT_RECENT =
+            "SELECT id FROM operation_requests WHERE status = 'CANCELLED' AND completed_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topics.cancel}")
+    private String cancelTopic;
+
+    @Value("${queue.cancel.window-hours:24}")
+    private long windowHours;
+
+    @Value("${queue.cancel.bloom-fpp:0.01}")
+    private double bloomFalsePositiveRate;
+
+    private LongByteHashMap cancelled = new LongByteHashMap(1024);
+    private LongBloomFilter bloom = new LongBloomFilter(1024, 0.01);
+    private BloomSnapshot bloomSnapshot;
+
+    private final Object rebuildMonitor = new Object();
+
+    // Cancelaciones recibidas durante una reconstrucción; se reaplican sobre el conjunto nuevo
+    private List<Long> journal;
+
+    public CancellationRegistry(JdbcTemplate jdbcTemplate,
+                                @Qualifier("generalKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OperationStatusChangedEvent event) {
+        if (event.getNewStatus() != OperationStatus.CANCELLED || event.getOperationId() == null) {
+            return;
+        }
+        add(event.getOperationId());
+
+        OperationCancellation cancellation = OperationCancellation.builder()
+                .operationId(event.getOperationId())
+                .userId(event.getUserId())
+                .queueName(event.getQueueName())
+                .cancelledAt(event.getCompletedAt() != null ? event.getCompletedAt() : LocalDateTime.now())
+                .build();
+        kafkaTemplate.send(cancelTopic, String.valueOf(event.getOperationId()), cancellation)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Error publicando la cancelación de la operación {}: {}",
+                                event.getOperationId(), ex.getMessage());
+                    }
+                });
+    }
+
+    public synchronized boolean isCancelled(long operationId) {
+        return cancelled.get(operationId) != LongByteHashMap.MISSING;
+    }
+
+    public synchronized int size() {
+        return cancelled.size();
+    }
+
+    /**
+     * Filtro serializado (ver {@link LongBloomFilter#toByteArray()}) junto con su ETag y
+     * el número de cancelaciones, tomados a la vez; se regenera solo si cambió. El ETag
+     * es el SHA-256 de los bytes, así que dos instancias con el mismo contenido dan el
+     * mismo ETag y uno nunca corresponde a otro contenido.
+     */
+    public synchronized BloomSnapshot bloomSnapshot() {
+        if (bloomSnapshot == null) {
+            byte[] bytes = bloom.toByteArray();
+            bloomSnapshot = new BloomSnapshot(bytes, "\"" + HexFormat.of().formatHex(sha256(bytes), 0, 16) + "\"",
+                    cancelled.size());
+        }
+        return bloomSnapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${queue.cancel.refresh-interval-ms:10000}",
+            initialDelayString = "${queue.cancel.refresh-interval-ms:10000}")
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            setJournal(new ArrayList<>());
+            try {
+                Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusHours(windowHours));
+                List<Long> ids = new ArrayList<>();
+                jdbcTemplate.query(SELECT_RECENT, rs -> {
+                    ids.add(rs.getLong(1));
+                }, since);
+
+                synchronized (this) {
+                    // Holgura para las cancelaciones que lleguen antes de la próxima reconstrucción
+                    int expected = Math.max(1024, (ids.size() + journal.size()) * 2);
+                    LongByteHashMap freshSet = new LongByteHashMap(expected);
+                    LongBloomFilter freshBloom = new LongBloomFilter(expected, bloomFalsePositiveRate);
+                    for (long id : ids) {
+                        freshSet.put(id, (byte) 1);
+                        freshBloom.add(id);
+                    }
+                    // Cancelaciones confirmadas mientras se consultaba la BD
+                    for (long id : journal) {
+                        freshSet.put(id, (byte) 1);
+                        freshBloom.add(id);
+                    }
+                    cancelled = freshSet;
+                    bloom = freshBloom;
+                    journal = null;
+                    bloomSnapshot = null;
+                }
+                log.debug("Registro de cancelaciones reconstruido: {} operaciones", ids.size());
+            } catch (Exception e) {
+                setJournal(null);
+                log.error("Error reconstruyendo el registro de cancelaciones", e);
+            }
+        }
+    }
+
+    private synchronized void setJournal(List<Long> value) {
+        journal = value;
+    }
+
+    private synchronized void add(long operationId) {
+        cancelled.put(operationId, (byte) 1);
+        bloom.add(operationId);
+        if (journal != null) {
+            journal.add(operationId);
+        }
+        bloomSnapshot = null;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Filtro serializado, su ETag (entre comillas) y cuántas cancelaciones contiene
+     */
+    public record BloomSnapshot(byte[] bytes, String etag, int count) {
+    }
+}
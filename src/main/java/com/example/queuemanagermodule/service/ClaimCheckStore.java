@@ -0,0 +1,165 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.QueueItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Claim-check para payloads de DEPLOY_SLICE grandes: si el JSON del payload supera
+ * queue.claim-check.threshold-bytes se guarda una vez en disco y el QueueItem viaja
+ * sin payload, con payloadRef (SHA-256 del contenido) y payloadSize. Los workers lo
+ * descargan de GET /api/queue/payloads/{ref} y comprueban el digest. Al ser
+ * direccionable por contenido, un payload repetido se guarda una sola vez.
+ * El directorio debe ser compartido si hay varias instancias.
+ */
+@Component
+@Slf4j
+public class ClaimCheckStore {
+
+    private static final Pattern REF = Pattern.compile("[0-9a-f]{64}");
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long thresholdBytes;
+    private final Path directory;
+
+    @Value("${queue.claim-check.retention-hours:72}")
+    private long retentionHours;
+
+    public ClaimCheckStore(ObjectMapper objectMapper,
+                           @Value("${queue.claim-check.enabled:false}") boolean enabled,
+                           @Value("${queue.claim-check.threshold-bytes:262144}") long thresholdBytes,
+                           @Value("${queue.claim-check.dir:${java.io.tmpdir}/queue-claim-check}") String directory) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Saca el payload del item si supera el umbral; si no, lo deja igual
+     */
+    public QueueItem checkIn(QueueItem queueItem) {
+        if (!enabled || queueItem.getPayload() == null
+                || queueItem.getOperationType() != OperationType.DEPLOY_SLICE) {
+            return queueItem;
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(queueItem.getPayload());
+            if (json.length <= thresholdBytes) {
+                return queueItem;
+            }
+            String ref = store(json);
+            queueItem.setPayload(null);
+            queueItem.setPayloadRef(ref);
+            queueItem.setPayloadSize((long) json.length);
+            log.debug("Payload de la operación {} ({} bytes) guardado como {}", queueItem.getId(), json.length, ref);
+            return queueItem;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error guardando el payload de la operación " + queueItem.getId(), e);
+        }
+    }
+
+    /**
+     * Fichero del payload, o null si la referencia no existe o no es válida
+     */
+    public Path resolve(String ref) {
+        if (ref == null || !REF.matcher(ref).matches()) {
+            return null;
+        }
+        Path file = pathFor(ref);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private String store(byte[] json) throws IOException {
+        String ref = HexFormat.of().formatHex(sha256(json));
+        Path file = pathFor(ref);
+        if (Files.exists(file)) {
+            // Ya guardado: se renueva la fecha para que la limpieza no lo borre mientras se usa
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return ref;
+        }
+
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), ref, ".tmp");
+        try {
+            Files.write(temp, json);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return ref;
+    }
+
+    /**
+     * Borra los payloads sin uso durante queue.claim-check.retention-hours
+     */
+    @Scheduled(fixedDelayString = "${queue.claim-check.cleanup-interval-ms:3600000}",
+            initialDelayString = "${queue.claim-check.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        if (!enabled || !Files.isDirectory(directory)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retentionHours, ChronoUnit.HOURS);
+        int deleted = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        try {
+                            if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                                Files.delete(file);
+                                deleted++;
+                            }
+                        } catch (NoSuchFileException e) {
+                            // Borrado por otra instancia
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error limpiando el almacén de payloads {}", directory, e);
+        }
+        if (deleted > 0) {
+            log.info("Borrados {} payloads de claim-check sin uso desde {}", deleted, cutoff);
+        }
+    }
+
+    private Path pathFor(String ref) {
+        // Subdirectorio por los dos primeros caracteres para no llenar un único directorio
+        return directory.resolve(ref.substring(0, 2)).resolve(ref + ".json");
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.IdempotencyRecord;
+import com.example.queuemanagermodule.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Claves Idempotency-Key del encolado. Una caché LRU acotada responde los
+ * reintentos recientes sin ir a la BD. La tabla idempotency_keys, con la clave
+ * como PK, resuelve los reintentos concurrentes y los que llegan a otra instancia:
+ * la clave se reserva antes de insertar la operación, así que el segundo intento
+ * espera al primero y devuelve su operación sin insertar ni publicar nada.
+ */
+@Component
+@Slf4j
+public class IdempotencyKeys {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Map<String, CachedKey> cache;
+
+    @Value("${queue.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${queue.idempotency.cleanup-batch-size:5000}")
+    private int cleanupBatchSize;
+
+    public IdempotencyKeys(IdempotencyKeyRepository idempotencyKeyRepository,
+                           @Value("${queue.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedKey> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Operación ya encolada con esta clave, o null si la clave es nueva
+     * @throws IllegalArgumentException si la clave pertenece a otro usuario
+     */
+    public Long find(String idempotencyKey, Long userId) {
+        CachedKey cached;
+        synchronized (cache) {
+            cached = cache.get(idempotencyKey);
+        }
+        if (cached != null && cached.createdAt().isAfter(LocalDateTime.now().minusHours(retentionHours))) {
+            return checkOwner(idempotencyKey, userId, cached.userId(), cached.operationId());
+        }
+
+        IdempotencyRecord record = idempotencyKeyRepository.find(idempotencyKey, false);
+        if (record == null || record.getOperationId() == null) {
+            return null;
+        }
+        return checkOwner(idempotencyKey, userId, record.getUserId(), record.getOperationId());
+    }
+
+    /**
+     * Reserva la clave en la transacción actual. Si ya estaba reservada espera a que
+     * termine la transacción que la reservó y devuelve su operación.
+     * @return null si la reserva es nuestra, o el ID de la operación original
+     */
+    public Long reserve(String idempotencyKey, Long userId) {
+        if (idempotencyKeyRepository.reserve(idempotencyKey, userId, LocalDateTime.now())) {
+            return null;
+        }
+        IdempotencyRecord record = idempotencyKeyRepository.find(idempotencyKey, true);
+        if (record == null || record.getOperationId() == null) {
+            throw new IllegalStateException("La Idempotency-Key " + idempotencyKey + " está en uso por otra solicitud");
+        }
+        return checkOwner(idempotencyKey, userId, record.getUserId(), record.getOperationId());
+    }
+
+    /**
+     * Asocia la operación a la clave reservada; entra en la caché al confirmar la transacción
+     */
+    public void bind(String idempotencyKey, Long userId, Long operationId) {
+        idempotencyKeyRepository.bind(idempotencyKey, operationId);
+        CachedKey entry = new CachedKey(userId, operationId, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(idempotencyKey, entry);
+                }
+            });
+        } else {
+            remember(idempotencyKey, entry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${queue.idempotency.cleanup-interval-ms:600000}",
+            initialDelayString = "${queue.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int deleted = 0;
+        try {
+            int batch;
+            do {
+                batch = idempotencyKeyRepository.deleteExpired(cutoff, cleanupBatchSize);
+                deleted += batch;
+            } while (batch == cleanupBatchSize);
+        } catch (Exception e) {
+            log.error("Error borrando claves de idempotencia caducadas", e);
+        }
+        if (deleted > 0) {
+            log.info("Borradas {} claves de idempotencia anteriores a {}", deleted, cutoff);
+        }
+    }
+
+    private void remember(String idempotencyKey, CachedKey entry) {
+        synchronized (cache) {
+            cache.put(idempotencyKey, entry);
+        }
+    }
+
+    private static Long checkOwner(String idempotencyKey, Long userId, Long ownerId, Long operationId) {
+        if (userId != null && !userId.equals(ownerId)) {
+            throw new IllegalArgumentException("La Idempotency-Key " + idempotencyKey + " pertenece a otro usuario");
+        }
+        return operationId;
+    }
+
+    private record CachedKey(Long userId, Long operationId, LocalDateTime createdAt) {
+    }
+}
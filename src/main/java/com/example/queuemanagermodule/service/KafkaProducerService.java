@@ -1,15 +1,14 @@
 package com.example.queuemanagermodule.service;
 
-import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.config.PriorityKafkaTemplates;
+import com.example.queuemanagermodule.model.Priority;
 import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.util.RoutingKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -20,10 +19,14 @@ import java.util.concurrent.TimeoutException;
 @RequiredArgsConstructor
 public class KafkaProducerService {
 
-    private final KafkaTemplate<String, QueueItem> kafkaTemplate;
+    private final PriorityKafkaTemplates priorityKafkaTemplates;
+    private final LatencyHistograms latencyHistograms;
 
     /**
-     * Envía un item de cola al tópico Kafka correspondiente.
+     * Envía un item de cola al tópico Kafka correspondiente con el productor de su
+     * prioridad y espera el ack. Tras el envío se vacía el acumulador de ese productor:
+     * el llamador está bloqueado (normalmente dentro de la transacción del encolado)
+     * y no debe pagar la espera de lote de LOW o MEDIUM.
      * @return true si el envío fue exitoso, false si falló
      */
     public boolean sendQueueItem(String topicName, QueueItem queueItem) {
@@ -31,12 +34,8 @@ public class KafkaProducerService {
                 topicName, queueItem.getId(), queueItem.getOperationType());
 
         try {
-            // Usar sliceId como clave para asegurar que mensajes del mismo slice
-            // vayan a la misma partición
-            String messageKey = extractMessageKey(queueItem);
-
-            CompletableFuture<SendResult<String, QueueItem>> future =
-                    kafkaTemplate.send(topicName, messageKey, queueItem);
+            CompletableFuture<SendResult<String, QueueItem>> future = send(topicName, queueItem);
+            priorityKafkaTemplates.forPriority(queueItem.getPriority()).flush();
 
             // Esperar confirmación con timeout
             SendResult<String, QueueItem> result = future.get(10, TimeUnit.SECONDS);
@@ -60,106 +59,50 @@ public class KafkaProducerService {
     }
 
     /**
-     * Extrae la clave para el mensaje basada en el tipo de operación.
-     * DEBE ser exactamente igual a la lógica del SliceIdPartitioner.
+     * Envía un item de cola sin esperar la confirmación del broker, con el productor
+     * de su prioridad. El llamador decide cuándo y cuánto esperar el ack.
      */
-    private String extractMessageKey(QueueItem queueItem) {
-        try {
-            Map<String, Object> payload = queueItem.getPayload();
-            if (payload == null) {
-                log.debug("Payload es null para QueueItem ID={}", queueItem.getId());
-                return "user-" + queueItem.getUserId();
-            }
-
-            String sliceId = null;
-
-            // Para DEPLOY_SLICE - buscar en slice_info.id
-            if (queueItem.getOperationType() == OperationType.DEPLOY_SLICE) {
-                log.debug("Extrayendo clave para DEPLOY_SLICE (ID: {}), payload keys: {}",
-                        queueItem.getId(), payload.keySet());
-
-                // Buscar en slice_info.id (fuente principal)
-                if (payload.containsKey("slice_info")) {
-                    Object sliceInfoObj = payload.get("slice_info");
-                    if (sliceInfoObj instanceof Map) {
-                        Map<String, Object> sliceInfo = (Map<String, Object>) sliceInfoObj;
-                        if (sliceInfo.containsKey("id")) {
-                            sliceId = String.valueOf(sliceInfo.get("id"));
-                            log.debug("DEPLOY_SLICE: SliceId extraído de slice_info.id: {}", sliceId);
-                        }
-                    }
-                }
-
-                // Buscar en network_config.slice_id como respaldo
-                if (sliceId == null && payload.containsKey("network_config")) {
-                    Object networkConfigObj = payload.get("network_config");
-                    if (networkConfigObj instanceof Map) {
-                        Map<String, Object> networkConfig = (Map<String, Object>) networkConfigObj;
-                        if (networkConfig.containsKey("slice_id")) {
-                            sliceId = String.valueOf(networkConfig.get("slice_id"));
-                            log.debug("DEPLOY_SLICE: SliceId extraído de network_config.slice_id: {}", sliceId);
-                        }
-                    }
-                }
-            }
-            // Para operaciones de control
-            else if (queueItem.getOperationType() == OperationType.STOP_SLICE ||
-                    queueItem.getOperationType() == OperationType.RESTART_SLICE) {
-
-                log.debug("Extrayendo clave para {} (ID: {}), payload keys: {}",
-                        queueItem.getOperationType(), queueItem.getId(), payload.keySet());
-
-                if (payload.containsKey("slice_id")) {
-                    sliceId = String.valueOf(payload.get("slice_id"));
-                    log.debug("{}: SliceId extraído de slice_id: {}", queueItem.getOperationType(), sliceId);
-                }
-            }
-            // Para operaciones de VM
-            else if (queueItem.getOperationType() == OperationType.PAUSE_VM ||
-                    queueItem.getOperationType() == OperationType.RESUME_VM ||
-                    queueItem.getOperationType() == OperationType.RESTART_VM) {
-
-                log.debug("Extrayendo clave para {} (ID: {}), payload keys: {}",
-                        queueItem.getOperationType(), queueItem.getId(), payload.keySet());
-
-                if (payload.containsKey("slice_id")) {
-                    sliceId = String.valueOf(payload.get("slice_id"));
-                    log.debug("{}: SliceId extraído de slice_id: {}", queueItem.getOperationType(), sliceId);
-                }
-
-                if (sliceId == null && payload.containsKey("vm_info")) {
-                    Object vmInfoObj = payload.get("vm_info");
-                    if (vmInfoObj instanceof Map) {
-                        Map<String, Object> vmInfo = (Map<String, Object>) vmInfoObj;
-                        if (vmInfo.containsKey("slice_id")) {
-                            sliceId = String.valueOf(vmInfo.get("slice_id"));
-                            log.debug("{}: SliceId extraído de vm_info.slice_id: {}", queueItem.getOperationType(), sliceId);
-                        }
-                    }
-                }
-            }
-
-            // Si encontramos sliceId, usarlo como clave
-            if (sliceId != null && !sliceId.isEmpty()) {
-                String key = "slice-" + sliceId;
-                log.info("Clave de particionamiento generada con sliceId {}: '{}'", sliceId, key);
-                return key;
-            }
-
-            // Fallback: usar solo userId
-            String fallbackKey = "user-" + queueItem.getUserId();
-            log.warn("No se encontró sliceId para operación {} (ID: {}), usando clave fallback: '{}'",
-                    queueItem.getOperationType(), queueItem.getId(), fallbackKey);
-            return fallbackKey;
-
-        } catch (Exception e) {
-            log.error("Error al extraer clave del mensaje para QueueItem ID={}: {}",
-                    queueItem.getId(), e.getMessage(), e);
+    public CompletableFuture<SendResult<String, QueueItem>> sendQueueItemAsync(String topicName, QueueItem queueItem) {
+        return send(topicName, queueItem);
+    }
 
-            String lastResortKey = "user-" + queueItem.getUserId();
-            log.warn("Usando clave de último recurso: '{}'", lastResortKey);
-            return lastResortKey;
+    /**
+     * Espera el ack de un envío asíncrono sin superar el deadline indicado (System.nanoTime()).
+     * Permite esperar un lote completo de envíos con un único timeout común.
+     * @return null si el envío fue confirmado, o el mensaje de error
+     */
+    public String awaitAck(CompletableFuture<?> future, long deadlineNanos) {
+        try {
+            long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+            future.get(remaining, TimeUnit.NANOSECONDS);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Envío interrumpido";
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        } catch (TimeoutException e) {
+            return "Timeout esperando confirmación de Kafka";
         }
     }
 
-}
\ No newline at end of file
+    private CompletableFuture<SendResult<String, QueueItem>> send(String topicName, QueueItem queueItem) {
+        // Clave de enrutado: los mensajes del mismo slice van a la misma partición
+        String messageKey = extractMessageKey(queueItem);
+        Priority producer = priorityKafkaTemplates.producerFor(queueItem.getPriority());
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, QueueItem>> future =
+                priorityKafkaTemplates.forPriority(producer).send(topicName, messageKey, queueItem);
+        future.whenComplete((result, ex) -> latencyHistograms.recordSend(producer, System.nanoTime() - start, ex == null));
+        return future;
+    }
+
+    /**
+     * Clave del mensaje: la clave de enrutado calculada al encolar, o la que
+     * corresponde al payload para items anteriores a routing_key
+     */
+    public String extractMessageKey(QueueItem queueItem) {
+        return RoutingKeys.of(queueItem);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.LatencySummary;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.Priority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogramas de latencia en streaming (espera submitted→started y procesamiento
+ * started→completed) por cola y por tipo de operación. Cada Timer usa un
+ * histograma HDR con ventana deslizante de memoria fija, de modo que los
+ * percentiles se calculan sin escanear la BD y se exportan por /actuator/prometheus.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LatencyHistograms {
+
+    private static final String WAIT_BY_QUEUE = "queue.operation.wait";
+    private static final String PROCESSING_BY_QUEUE = "queue.operation.processing";
+    private static final String WAIT_BY_TYPE = "queue.operation.type.wait";
+    private static final String PROCESSING_BY_TYPE = "queue.operation.type.processing";
+    private static final String KAFKA_SEND = "queue.kafka.send";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> waitByQueue = new ConcurrentHashMap<>();
+    private final Map<String, Timer> processingByQueue = new ConcurrentHashMap<>();
+    private final Map<OperationType, Timer> waitByType = new ConcurrentHashMap<>();
+    private final Map<OperationType, Timer> processingByType = new ConcurrentHashMap<>();
+    private final Map<Priority, Timer> sendByProducer = new ConcurrentHashMap<>();
+    private final Map<Priority, Timer> failedSendByProducer = new ConcurrentHashMap<>();
+
+    /**
+     * Registra la espera al pasar a IN_PROGRESS y el procesamiento al terminar
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OperationStatusChangedEvent event) {
+        if (event.getQueueName() == null || event.getOperationType() == null) {
+            return;
+        }
+
+        if (event.getNewStatus() == OperationStatus.IN_PROGRESS) {
+            Duration wait = between(event.getSubmittedAt(), event.getStartedAt());
+            if (wait != null) {
+                waitByQueue.computeIfAbsent(event.getQueueName(), q -> timer(WAIT_BY_QUEUE, "queue", q)).record(wait);
+                waitByType.computeIfAbsent(event.getOperationType(),
+                        t -> timer(WAIT_BY_TYPE, "operation_type", t.name())).record(wait);
+            }
+        } else if (event.getPreviousStatus() == OperationStatus.IN_PROGRESS) {
+            Duration processing = between(event.getStartedAt(), event.getCompletedAt());
+            if (processing != null) {
+                processingByQueue.computeIfAbsent(event.getQueueName(),
+                        q -> timer(PROCESSING_BY_QUEUE, "queue", q)).record(processing);
+                processingByType.computeIfAbsent(event.getOperationType(),
+                        t -> timer(PROCESSING_BY_TYPE, "operation_type", t.name())).record(processing);
+            }
+        }
+    }
+
+    public LatencySummary waitTime(String queueName) {
+        return summarize(waitByQueue.get(queueName));
+    }
+
+    public LatencySummary processingTime(String queueName) {
+        return summarize(processingByQueue.get(queueName));
+    }
+
+    /**
+     * Latencias de espera por tipo de operación
+     */
+    public Map<OperationType, LatencySummary> waitTimeByType() {
+        return summarizeByType(waitByType);
+    }
+
+    /**
+     * Latencias de procesamiento por tipo de operación
+     */
+    public Map<OperationType, LatencySummary> processingTimeByType() {
+        return summarizeByType(processingByType);
+    }
+
+    /**
+     * Registra la latencia de un envío a Kafka (hasta el ack o el error), etiquetada
+     * con la prioridad del productor que lo envió
+     */
+    public void recordSend(Priority producer, long nanos, boolean success) {
+        Map<Priority, Timer> timers = success ? sendByProducer : failedSendByProducer;
+        timers.computeIfAbsent(producer, p -> Timer.builder(KAFKA_SEND)
+                        .tag("producer", p.name())
+                        .tag("outcome", success ? "success" : "error")
+                        .publishPercentiles(0.5, 0.9, 0.99)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(30))
+                        .distributionStatisticExpiry(Duration.ofMinutes(5))
+                        .distributionStatisticBufferLength(3)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Latencias de los envíos confirmados por prioridad
+     */
+    public Map<Priority, LatencySummary> sendTimeByPriority() {
+        Map<Priority, LatencySummary> result = new EnumMap<>(Priority.class);
+        sendByProducer.forEach((priority, timer) -> result.put(priority, summarize(timer)));
+        return result;
+    }
+
+    private Map<OperationType, LatencySummary> summarizeByType(Map<OperationType, Timer> timers) {
+        Map<OperationType, LatencySummary> result = new EnumMap<>(OperationType.class);
+        timers.forEach((type, timer) -> result.put(type, summarize(timer)));
+        return result;
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofHours(2))
+                .distributionStatisticExpiry(Duration.ofMinutes(5))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+    }
+
+    private LatencySummary summarize(Timer timer) {
+        if (timer == null) {
+            return LatencySummary.builder().count(0L).build();
+        }
+
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        LatencySummary.LatencySummaryBuilder summary = LatencySummary.builder()
+                .count(snapshot.count())
+                .meanSeconds(snapshot.mean(TimeUnit.SECONDS))
+                .maxSeconds(snapshot.max(TimeUnit.SECONDS));
+
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            double seconds = value.value(TimeUnit.SECONDS);
+            if (value.percentile() == 0.5) {
+                summary.p50Seconds(seconds);
+            } else if (value.percentile() == 0.9) {
+                summary.p90Seconds(seconds);
+            } else if (value.percentile() == 0.99) {
+                summary.p99Seconds(seconds);
+            }
+        }
+        return summary.build();
+    }
+
+    private Duration between(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            return null;
+        }
+        return Duration.between(start, end);
+    }
+}
@@ -1,85 +1,223 @@
 package com.example.queuemanagermodule.service;
 
+import com.example.queuemanagermodule.model.LatencySummary;
 import com.example.queuemanagermodule.model.OperationStatus;
 import com.example.queuemanagermodule.model.QueueMetrics;
+import com.example.queuemanagermodule.repository.OperationRequestJdbcRepository;
 import com.example.queuemanagermodule.repository.OperationRequestRepository;
 import com.example.queuemanagermodule.repository.QueueMetricsRepository;
+import com.example.queuemanagermodule.repository.QueueStatusRollup;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class MetricsService {
 
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final OperationRequestRepository operationRequestRepository;
+    private final OperationRequestJdbcRepository operationRequestJdbcRepository;
     private final QueueMetricsRepository queueMetricsRepository;
+    private final LatencyHistograms latencyHistograms;
+
+    // Margen para no adelantar el watermark sobre transacciones que aún no confirman:
+    // terminal_at se asigna al ejecutar el UPDATE, no al confirmar
+    @Value("${queue.metrics.watermark-lag-seconds:30}")
+    private long watermarkLagSeconds;
+
+    // Acumulados de operaciones terminadas hasta el watermark; solo los usa el hilo del scheduler
+    private final Map<String, Rollup> terminalTotals = new HashMap<>();
+    private LocalDateTime watermark;
 
     /**
-     * Tarea programada para actualizar las métricas de las colas cada 5 minutos
+     * Tarea programada para actualizar las métricas de las colas cada 5 minutos.
+     * Una sola consulta agrupada cubre las operaciones activas y las terminadas desde
+     * el último snapshot; el histórico ya contado se conserva en memoria y en el
+     * propio snapshot, que sirve de checkpoint al reiniciar. El watermark avanza sobre
+     * terminal_at, que asigna la BD con su propio reloj, así que un completed_at
+     * atrasado de un worker no deja operaciones sin contar.
      */
     @Scheduled(fixedRate = 300000) // 5 minutos
     @Transactional
     public void updateQueueMetrics() {
         log.info("Actualizando métricas de todas las colas");
 
-        // Obtener nombres de colas únicos
-        Set<String> queueNames = new HashSet<>();
-        operationRequestRepository.findAll().forEach(op -> queueNames.add(op.getQueueName()));
+        if (watermark == null) {
+            restoreCheckpoint();
+        }
+
+        LocalDateTime upTo = operationRequestJdbcRepository.databaseUtcNow().minusSeconds(watermarkLagSeconds);
+        if (upTo.isBefore(watermark)) {
+            upTo = watermark;
+        }
+
+        Map<String, Rollup> active = new HashMap<>();
+        Map<String, Rollup> delta = new HashMap<>();
+        for (QueueStatusRollup row : operationRequestRepository.rollupActiveAndCompletedBetween(watermark, upTo)) {
+            boolean terminal = row.getStatus() == OperationStatus.COMPLETED || row.getStatus() == OperationStatus.FAILED;
+            (terminal ? delta : active).computeIfAbsent(row.getQueueName(), q -> new Rollup()).add(row);
+        }
+
+        delta.forEach((queueName, rollup) -> terminalTotals.computeIfAbsent(queueName, q -> new Rollup()).merge(rollup));
+        watermark = upTo;
 
+        TreeSet<String> queueNames = new TreeSet<>(terminalTotals.keySet());
+        queueNames.addAll(active.keySet());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<QueueMetrics> snapshots = new ArrayList<>(queueNames.size());
         for (String queueName : queueNames) {
-            updateMetricsForQueue(queueName);
+            try {
+                snapshots.add(buildMetrics(queueName,
+                        terminalTotals.getOrDefault(queueName, new Rollup()),
+                        active.getOrDefault(queueName, new Rollup()), now));
+            } catch (Exception e) {
+                log.error("Error actualizando métricas para cola: {}", queueName, e);
+            }
+        }
+
+        queueMetricsRepository.saveAll(snapshots);
+        log.debug("Métricas actualizadas para {} colas (watermark: {})", snapshots.size(), watermark);
+    }
+
+    /**
+     * Construye el snapshot de una cola a partir de los acumulados y del estado activo
+     */
+    private QueueMetrics buildMetrics(String queueName, Rollup terminal, Rollup active, LocalDateTime now) {
+        // Percentiles desde los histogramas en memoria
+        LatencySummary waitTime = latencyHistograms.waitTime(queueName);
+        LatencySummary processingTime = latencyHistograms.processingTime(queueName);
+
+        long waitSamples = terminal.waitSamples + active.waitSamples;
+        long waitSum = terminal.waitSumSeconds + active.waitSumSeconds;
+
+        return QueueMetrics.builder()
+                .queueName(queueName)
+                .pendingCount(active.pendingCount)
+                .inProgressCount(active.inProgressCount)
+                .completedCount(terminal.completedCount)
+                .failedCount(terminal.failedCount)
+                .averageWaitTimeSeconds(average(waitSum, waitSamples))
+                .averageProcessingTimeSeconds(average(terminal.processingSumSeconds, terminal.processingSamples))
+                .waitTimeP50Seconds(waitTime.getP50Seconds())
+                .waitTimeP90Seconds(waitTime.getP90Seconds())
+                .waitTimeP99Seconds(waitTime.getP99Seconds())
+                .maxWaitTimeSeconds(ceilSeconds(waitTime.getMaxSeconds()))
+                .processingTimeP50Seconds(processingTime.getP50Seconds())
+                .processingTimeP90Seconds(processingTime.getP90Seconds())
+                .processingTimeP99Seconds(processingTime.getP99Seconds())
+                .maxProcessingTimeSeconds(ceilSeconds(processingTime.getMaxSeconds()))
+                .terminalWaitSamples(terminal.waitSamples)
+                .terminalWaitSumSeconds(terminal.waitSumSeconds)
+                .terminalProcessingSamples(terminal.processingSamples)
+                .terminalProcessingSumSeconds(terminal.processingSumSeconds)
+                .rollupWatermark(watermark)
+                .lastUpdated(now)
+                .recordDate(now)
+                .build();
+    }
+
+    /**
+     * Retoma los acumulados desde el último snapshot de cada cola. Si algún snapshot
+     * no tiene checkpoint (o no coinciden), se recalcula el histórico una única vez.
+     */
+    private void restoreCheckpoint() {
+        List<QueueMetrics> latest = queueMetricsRepository.findLatestPerQueue();
+        LocalDateTime checkpoint = null;
+        boolean consistent = !latest.isEmpty();
+
+        for (QueueMetrics metrics : latest) {
+            if (metrics.getRollupWatermark() == null || metrics.getTerminalWaitSamples() == null
+                    || (checkpoint != null && !checkpoint.equals(metrics.getRollupWatermark()))) {
+                consistent = false;
+                break;
+            }
+            checkpoint = metrics.getRollupWatermark();
+        }
+
+        terminalTotals.clear();
+        if (!consistent) {
+            log.info("Sin checkpoint de métricas válido, se recalcula el histórico completo");
+            watermark = EPOCH;
+            return;
+        }
+
+        for (QueueMetrics metrics : latest) {
+            Rollup rollup = new Rollup();
+            rollup.completedCount = metrics.getCompletedCount();
+            rollup.failedCount = metrics.getFailedCount();
+            rollup.waitSamples = metrics.getTerminalWaitSamples();
+            rollup.waitSumSeconds = metrics.getTerminalWaitSumSeconds();
+            rollup.processingSamples = metrics.getTerminalProcessingSamples();
+            rollup.processingSumSeconds = metrics.getTerminalProcessingSumSeconds();
+            terminalTotals.put(metrics.getQueueName(), rollup);
         }
+        watermark = checkpoint;
+        log.info("Rollup de métricas retomado desde el checkpoint {} ({} colas)", watermark, latest.size());
+    }
+
+    private Double average(long sum, long samples) {
+        return samples > 0 ? (double) sum / samples : null;
+    }
+
+    private Long ceilSeconds(Double seconds) {
+        return seconds != null ? (long) Math.ceil(seconds) : null;
     }
 
     /**
-     * Actualiza métricas para una cola específica
+     * Conteos y sumas de tiempos de una cola
      */
-    private void updateMetricsForQueue(String queueName) {
-        log.debug("Actualizando métricas para cola: {}", queueName);
-
-        try {
-            // Contar operaciones por estado
-            Long pendingCount = operationRequestRepository
-                    .countByQueueNameAndStatus(queueName, OperationStatus.PENDING);
-
-            Long inProgressCount = operationRequestRepository
-                    .countByQueueNameAndStatus(queueName, OperationStatus.IN_PROGRESS);
-
-            Long completedCount = operationRequestRepository
-                    .countByQueueNameAndStatus(queueName, OperationStatus.COMPLETED);
-
-            Long failedCount = operationRequestRepository
-                    .countByQueueNameAndStatus(queueName, OperationStatus.FAILED);
-
-            // Calcular tiempos promedio
-            Double avgWaitTime = operationRequestRepository.calculateAverageWaitTime(queueName);
-            Double avgProcessingTime = operationRequestRepository.calculateAverageProcessingTime(queueName);
-
-            // Crear registro de métricas
-            QueueMetrics metrics = QueueMetrics.builder()
-                    .queueName(queueName)
-                    .pendingCount(pendingCount)
-                    .inProgressCount(inProgressCount)
-                    .completedCount(completedCount)
-                    .failedCount(failedCount)
-                    .averageWaitTimeSeconds(avgWaitTime)
-                    .averageProcessingTimeSeconds(avgProcessingTime)
-                    .lastUpdated(LocalDateTime.now())
-                    .recordDate(LocalDateTime.now())
-                    .build();
-
-            queueMetricsRepository.save(metrics);
-            log.debug("Métricas actualizadas para cola: {}", queueName);
-        } catch (Exception e) {
-            log.error("Error actualizando métricas para cola: {}", queueName, e);
+    private static final class Rollup {
+        private long pendingCount;
+        private long inProgressCount;
+        private long completedCount;
+        private long failedCount;
+        private long waitSamples;
+        private long waitSumSeconds;
+        private long processingSamples;
+        private long processingSumSeconds;
+
+        private void add(QueueStatusRollup row) {
+            long total = nullToZero(row.getTotal());
+            switch (row.getStatus()) {
+                case PENDING -> pendingCount += total;
+                case IN_PROGRESS -> inProgressCount += total;
+                case COMPLETED -> completedCount += total;
+                case FAILED -> failedCount += total;
+                default -> { }
+            }
+            waitSamples += nullToZero(row.getWaitSamples());
+            waitSumSeconds += nullToZero(row.getWaitSumSeconds());
+            processingSamples += nullToZero(row.getProcessingSamples());
+            processingSumSeconds += nullToZero(row.getProcessingSumSeconds());
+        }
+
+        private void merge(Rollup other) {
+            pendingCount += other.pendingCount;
+            inProgressCount += other.inProgressCount;
+            completedCount += other.completedCount;
+            failedCount += other.failedCount;
+            waitSamples += other.waitSamples;
+            waitSumSeconds += other.waitSumSeconds;
+            processingSamples += other.processingSamples;
+            processingSumSeconds += other.processingSumSeconds;
+        }
+
+        private static long nullToZero(Long value) {
+            return value != null ? value : 0L;
         }
     }
-}
\ No newline at end of file
+}
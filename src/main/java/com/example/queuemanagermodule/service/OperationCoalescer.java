@@ -0,0 +1,183 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationRequest;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.repository.OperationRequestJdbcRepository;
+import com.example.queuemanagermodule.util.RoutingKeys;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Coalescencia de operaciones redundantes al encolar. Antes de insertar una operación
+ * se revisan las PENDING con su misma clave de enrutado (la de KafkaProducerService)
+ * encoladas en los últimos queue.coalesce.window-ms. Solo se coalescen operaciones
+ * con clave de slice real: las claves "user-" agrupan recursos distintos y
+ * "slice-null" (slice_id nulo en el payload) no identifica ningún slice.
+ * <ul>
+ *   <li>Si una es idéntica (tipo, cola y payload) la nueva no se inserta ni se
+ *   publica: se devuelve la existente.</li>
+ *   <li>Las que la nueva deja sin efecto pasan a CANCELLED con superseded_by
+ *   apuntando a la nueva: STOP_SLICE reemplaza a DEPLOY_SLICE, RESTART_SLICE y las
+ *   operaciones de VM del slice; RESTART_SLICE a RESTART_VM; PAUSE_VM y RESUME_VM
+ *   al PAUSE_VM/RESUME_VM anterior de la misma VM.</li>
+ * </ul>
+ * Si la reemplazada ya estaba en Kafka, los workers la descartan con el registro de
+ * cancelaciones; en modo outbox su evento se cancela antes de publicarse.
+ * La búsqueda no bloquea y cada cambio se confirma por PK solo si la operación sigue
+ * PENDING, así que una carrera como mucho deja de coalescer, nunca cancela ni
+ * absorbe una operación ya empezada.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OperationCoalescer {
+
+    private static final int MAX_CANDIDATES = 50;
+
+    private final OperationRequestJdbcRepository operationRequestJdbcRepository;
+    private final PayloadCodec payloadCodec;
+    private final OperationEventPublisher operationEventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${queue.coalesce.enabled:false}")
+    private boolean enabled;
+
+    @Value("${queue.coalesce.window-ms:5000}")
+    private long windowMs;
+
+    @Value("${queue.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    /**
+     * Decide qué hacer con la operación que se va a encolar. Debe llamarse dentro de
+     * la transacción del encolado: la operación idéntica devuelta queda bloqueada
+     * en modo compartido hasta el final.
+     */
+    public Plan plan(OperationType type, String queueName, Priority priority, String routingKey,
+                     Map<String, Object> payload) {
+        if (!enabled || !RoutingKeys.isSliceKey(routingKey) || type == OperationType.GENERATE_VNC_TOKEN) {
+            return Plan.NONE;
+        }
+
+        List<OperationRequest> pending = operationRequestJdbcRepository.findRecentPendingByRoutingKey(
+                routingKey, LocalDateTime.now().minusNanos(windowMs * 1_000_000), MAX_CANDIDATES);
+        if (pending.isEmpty()) {
+            return Plan.NONE;
+        }
+
+        List<OperationRequest> superseded = new ArrayList<>();
+        for (OperationRequest candidate : pending) {
+            Map<String, Object> candidatePayload;
+            try {
+                candidatePayload = payloadCodec.readPayload(candidate);
+            } catch (JsonProcessingException e) {
+                log.warn("No se pudo leer el payload de la operación {} para coalescer: {}",
+                        candidate.getId(), e.getMessage());
+                continue;
+            }
+
+            if (candidate.getOperationType() == type && candidate.getPriority() == priority
+                    && queueName.equals(candidate.getQueueName()) && Objects.equals(candidatePayload, payload)) {
+                if (operationRequestJdbcRepository.lockIfPending(candidate)) {
+                    return new Plan(candidate, List.of());
+                }
+                continue;
+            }
+
+            if (supersedes(type, payload, candidate.getOperationType(), candidatePayload)) {
+                superseded.add(candidate);
+            }
+        }
+        return superseded.isEmpty() ? Plan.NONE : new Plan(null, superseded);
+    }
+
+    /**
+     * Cancela las operaciones reemplazadas por winner que sigan PENDING
+     * @return cuántas se cancelaron
+     */
+    public int supersede(List<OperationRequest> losers, OperationRequest winner) {
+        if (losers.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String message = "Reemplazada por la operación " + winner.getId() + " (" + winner.getOperationType() + ")";
+        int cancelled = 0;
+        for (OperationRequest loser : losers) {
+            if (!operationRequestJdbcRepository.supersedeIfPending(loser, winner.getId(), message, now)) {
+                continue;
+            }
+            if (outboxEnabled) {
+                operationRequestJdbcRepository.cancelOutboxEvents(loser.getId(), now);
+            }
+            loser.setStatus(OperationStatus.CANCELLED);
+            loser.setSupersededBy(winner.getId());
+            loser.setErrorMessage(message);
+            loser.setCompletedAt(now);
+            operationEventPublisher.publishTransition(loser, OperationStatus.PENDING);
+            count("superseded", loser.getOperationType());
+            cancelled++;
+            log.info("Operación {} ({}) reemplazada por la operación {} ({})",
+                    loser.getId(), loser.getOperationType(), winner.getId(), winner.getOperationType());
+        }
+        return cancelled;
+    }
+
+    /**
+     * Registra que una solicitud se absorbió en una operación idéntica ya pendiente
+     */
+    public void recordDuplicate(OperationType type) {
+        count("duplicate", type);
+    }
+
+    static boolean supersedes(OperationType newType, Map<String, Object> newPayload,
+                              OperationType oldType, Map<String, Object> oldPayload) {
+        switch (newType) {
+            case STOP_SLICE:
+                return oldType == OperationType.DEPLOY_SLICE || oldType == OperationType.RESTART_SLICE
+                        || oldType == OperationType.PAUSE_VM || oldType == OperationType.RESUME_VM
+                        || oldType == OperationType.RESTART_VM;
+            case RESTART_SLICE:
+                return oldType == OperationType.RESTART_VM;
+            case PAUSE_VM:
+            case RESUME_VM:
+                if (oldType != OperationType.PAUSE_VM && oldType != OperationType.RESUME_VM) {
+                    return false;
+                }
+                // El último estado pedido para la VM es el que cuenta
+                String vmId = RoutingKeys.vmId(newType, newPayload);
+                return RoutingKeys.isId(vmId) && vmId.equals(RoutingKeys.vmId(oldType, oldPayload));
+            default:
+                return false;
+        }
+    }
+
+    private void count(String reason, OperationType type) {
+        Counter.builder("queue.coalesced")
+                .description("Operaciones pendientes coalescidas al encolar")
+                .tag("reason", reason)
+                .tag("type", type.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Resultado de la coalescencia: la operación idéntica que absorbe a la nueva, o
+     * las que la nueva reemplaza
+     */
+    public record Plan(OperationRequest duplicateOf, List<OperationRequest> superseded) {
+        static final Plan NONE = new Plan(null, List.of());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationRequest;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.model.QueueItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publica las transiciones de estado de las operaciones como eventos de aplicación.
+ * Los listeners usan @TransactionalEventListener, por lo que un evento publicado
+ * dentro de una transacción solo se entrega si ésta confirma.
+ */
+@Component
+@RequiredArgsConstructor
+public class OperationEventPublisher {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * Notifica una operación recién creada
+     */
+    public void publishCreated(OperationRequest operation) {
+        publishTransition(operation, null);
+    }
+
+    /**
+     * Notifica que la operación pasó de previousStatus a su estado actual
+     */
+    public void publishTransition(OperationRequest operation, OperationStatus previousStatus) {
+        applicationEventPublisher.publishEvent(OperationStatusChangedEvent.builder()
+                .operationId(operation.getId())
+                .queueName(operation.getQueueName())
+                .operationType(operation.getOperationType())
+                .userId(operation.getUserId())
+                .previousStatus(previousStatus)
+                .newStatus(operation.getStatus())
+                .submittedAt(operation.getSubmittedAt())
+                .startedAt(operation.getStartedAt())
+                .completedAt(operation.getCompletedAt())
+                .retryCount(operation.getRetryCount())
+                .build());
+    }
+
+    /**
+     * Notifica que un intento fallido vuelve a PENDING para reintentarse. El evento
+     * lleva las marcas del intento, aunque en BD ya se hayan limpiado.
+     */
+    public void publishRetry(OperationRequest operation, LocalDateTime attemptStartedAt, LocalDateTime failedAt) {
+        applicationEventPublisher.publishEvent(OperationStatusChangedEvent.builder()
+                .operationId(operation.getId())
+                .queueName(operation.getQueueName())
+                .operationType(operation.getOperationType())
+                .userId(operation.getUserId())
+                .previousStatus(OperationStatus.IN_PROGRESS)
+                .newStatus(OperationStatus.PENDING)
+                .submittedAt(operation.getSubmittedAt())
+                .startedAt(attemptStartedAt)
+                .completedAt(failedAt)
+                .retryCount(operation.getRetryCount())
+                .build());
+    }
+
+    /**
+     * Notifica un paso intermedio de la operación (por ejemplo, IN_PROGRESS cuando el
+     * inicio y el fin llegaron juntos y se aplicaron en una sola actualización)
+     */
+    public void publishTransition(OperationRequest operation, OperationStatus previousStatus,
+                                  OperationStatus newStatus) {
+        applicationEventPublisher.publishEvent(OperationStatusChangedEvent.builder()
+                .operationId(operation.getId())
+                .queueName(operation.getQueueName())
+                .operationType(operation.getOperationType())
+                .userId(operation.getUserId())
+                .previousStatus(previousStatus)
+                .newStatus(newStatus)
+                .submittedAt(operation.getSubmittedAt())
+                .startedAt(operation.getStartedAt())
+                .build());
+    }
+
+    /**
+     * Notifica una transición a partir del item publicado en Kafka
+     */
+    public void publishTransition(QueueItem queueItem, OperationStatus previousStatus, OperationStatus newStatus) {
+        applicationEventPublisher.publishEvent(OperationStatusChangedEvent.builder()
+                .operationId(queueItem.getId())
+                .queueName(queueItem.getQueueName())
+                .operationType(queueItem.getOperationType())
+                .userId(queueItem.getUserId())
+                .previousStatus(previousStatus)
+                .newStatus(newStatus)
+                .submittedAt(queueItem.getEnqueuedAt())
+                .completedAt(LocalDateTime.now())
+                .build());
+    }
+}
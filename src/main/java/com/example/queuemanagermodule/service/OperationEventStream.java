@@ -0,0 +1,109 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Difunde las transiciones de estado confirmadas a los suscriptores SSE, por
+ * operación o por usuario. Cada suscriptor tiene su propio buffer acotado que
+ * descarta los eventos más antiguos si el cliente no consume, así que un cliente
+ * lento no frena a los demás ni a quien publica. Las claves sin suscriptores se
+ * eliminan del registro.
+ */
+@Component
+@Slf4j
+public class OperationEventStream {
+
+    private final Map<Long, Set<Sinks.Many<OperationStatusChangedEvent>>> byOperation = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Sinks.Many<OperationStatusChangedEvent>>> byUser = new ConcurrentHashMap<>();
+
+    @Value("${queue.sse.buffer-size:32}")
+    private int bufferSize;
+
+    public OperationEventStream(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("queue.sse.subscribers", Tags.of("scope", "operation"), byOperation, this::countSubscribers);
+        meterRegistry.gauge("queue.sse.subscribers", Tags.of("scope", "user"), byUser, this::countSubscribers);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OperationStatusChangedEvent event) {
+        if (event.getOperationId() != null) {
+            emit(byOperation.get(event.getOperationId()), event);
+        }
+        if (event.getUserId() != null) {
+            emit(byUser.get(event.getUserId()), event);
+        }
+    }
+
+    /**
+     * Transiciones de una operación, precedidas por initial. El suscriptor se registra
+     * antes de resolver initial y los cambios intermedios quedan en su buffer, así que
+     * no se pierde ninguno.
+     */
+    public Flux<OperationStatusChangedEvent> operationEvents(Long operationId,
+                                                             Mono<OperationStatusChangedEvent> initial) {
+        return subscribe(byOperation, operationId, initial);
+    }
+
+    /**
+     * Transiciones de todas las operaciones de un usuario
+     */
+    public Flux<OperationStatusChangedEvent> userEvents(Long userId) {
+        return subscribe(byUser, userId, Mono.empty());
+    }
+
+    public static boolean isTerminal(OperationStatus status) {
+        return status != OperationStatus.PENDING && status != OperationStatus.IN_PROGRESS;
+    }
+
+    private Flux<OperationStatusChangedEvent> subscribe(Map<Long, Set<Sinks.Many<OperationStatusChangedEvent>>> registry,
+                                                        Long key, Mono<OperationStatusChangedEvent> initial) {
+        return Flux.defer(() -> {
+            Sinks.Many<OperationStatusChangedEvent> sink = Sinks.many().unicast().onBackpressureBuffer();
+            registry.compute(key, (k, sinks) -> {
+                Set<Sinks.Many<OperationStatusChangedEvent>> result = sinks != null ? sinks : ConcurrentHashMap.newKeySet();
+                result.add(sink);
+                return result;
+            });
+
+            return Flux.concat(initial, sink.asFlux())
+                    .onBackpressureBuffer(bufferSize, dropped ->
+                            log.debug("Evento SSE descartado por cliente lento: {}", dropped.getOperationId()),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> registry.computeIfPresent(key, (k, sinks) -> {
+                        sinks.remove(sink);
+                        return sinks.isEmpty() ? null : sinks;
+                    }));
+        });
+    }
+
+    private void emit(Set<Sinks.Many<OperationStatusChangedEvent>> sinks, OperationStatusChangedEvent event) {
+        if (sinks == null) {
+            return;
+        }
+        for (Sinks.Many<OperationStatusChangedEvent> sink : sinks) {
+            // Varios hilos pueden confirmar transiciones a la vez; el sink exige emisiones serializadas
+            synchronized (sink) {
+                sink.tryEmitNext(event);
+            }
+        }
+    }
+
+    private double countSubscribers(Map<Long, Set<Sinks.Many<OperationStatusChangedEvent>>> registry) {
+        return registry.values().stream().mapToInt(Set::size).sum();
+    }
+}
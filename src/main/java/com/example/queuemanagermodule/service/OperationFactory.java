@@ -0,0 +1,207 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.*;
+import com.example.queuemanagermodule.util.RoutingKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Construye las entidades y mensajes de una operación encolada: prioridad, cola,
+ * tópico de Kafka, {@link OperationRequest} y {@link QueueItem}.
+ * Compartido por el stack bloqueante y el reactivo para que ambos enruten igual.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OperationFactory {
+
+    private final QueueCatalog queueCatalog;
+    private final ClaimCheckStore claimCheckStore;
+
+    @Value("${queue.retry.max-attempts}")
+    private Integer maxRetryAttempts;
+
+    /**
+     * Devuelve la prioridad solicitada o, si es nula, la calcula automáticamente
+     */
+    public Priority resolvePriority(OperationType type, ClusterType clusterType, Long userId,
+                                    Map<String, Object> payload, Priority requestedPriority) {
+        // Si la prioridad es nula, calcularla automáticamente
+        if (requestedPriority == null) {
+            Priority calculated = determinePriority(type, clusterType, userId, payload);
+            log.info("Prioridad calculada automáticamente: {}", calculated);
+            return calculated;
+        }
+        log.info("Usando prioridad solicitada: {}", requestedPriority);
+        return requestedPriority;
+    }
+
+    /**
+     * Determina la prioridad adecuada para una operación basada en varios factores
+     */
+    public Priority determinePriority(OperationType operationType, ClusterType clusterType,
+                                       Long userId, Map<String, Object> payload) {
+
+        // Prioridad base - por defecto es MEDIUM
+        Priority calculatedPriority = Priority.MEDIUM;
+
+        // Optimizado para DEPLOY_SLICE
+        if (operationType == OperationType.DEPLOY_SLICE && payload != null) {
+            try {
+                // Analizar la estructura del payload actual
+                Map<String, Object> topologyInfo = (Map<String, Object>) payload.get("topology_info");
+                if (topologyInfo != null) {
+                    // 1. Cantidad de VMs
+                    List<Map<String, Object>> vms = (List<Map<String, Object>>) topologyInfo.get("vms");
+                    if (vms != null) {
+                        int vmCount = vms.size();
+
+                        // Slices con muchas VMs tienen alta prioridad
+                        if (vmCount > 5) {
+                            calculatedPriority = Priority.HIGH;
+                        } else if (vmCount <= 2) {
+                            calculatedPriority = Priority.LOW;
+                        }
+
+                        // 2. Complejidad de la topología - basada en cantidad de enlaces
+                        List<Map<String, Object>> links = (List<Map<String, Object>>) topologyInfo.get("links");
+                        if (links != null && links.size() > 3) {
+                            // Topología compleja
+                            if (calculatedPriority != Priority.HIGH) {
+                                calculatedPriority = Priority.MEDIUM;
+                            }
+                        }
+
+                        // 3. Complejidad de la red - basada en cantidad de interfaces
+                        List<Map<String, Object>> interfaces = (List<Map<String, Object>>) topologyInfo.get("interfaces");
+                        if (interfaces != null && interfaces.size() > 6) {
+                            // Muchas interfaces indican una topología compleja
+                            if (calculatedPriority != Priority.HIGH) {
+                                calculatedPriority = Priority.MEDIUM;
+                            }
+                        }
+                    }
+                }
+
+                // 4. Flag de urgencia o importancia (si existe)
+                if (payload.containsKey("urgent") && Boolean.TRUE.equals(payload.get("urgent"))) {
+                    calculatedPriority = Priority.HIGH;
+                }
+
+            } catch (Exception e) {
+                log.warn("Error analizando payload para determinar prioridad: {}", e.getMessage());
+                // Mantener la prioridad calculada hasta ahora
+            }
+        } else {
+            // Para otras operaciones
+            switch (operationType) {
+                case STOP_SLICE:
+                    // Detenciones son importantes
+                    calculatedPriority = Priority.HIGH;
+                    break;
+                case RESTART_SLICE:
+                    calculatedPriority = Priority.MEDIUM;
+                    break;
+                case PAUSE_VM:
+                case RESUME_VM:
+                case RESTART_VM:
+                    calculatedPriority = Priority.MEDIUM;
+                    break;
+                case SYNC_IMAGES:
+                case GENERATE_VNC_TOKEN:
+                    calculatedPriority = Priority.LOW;
+                    break;
+                default:
+                    calculatedPriority = Priority.MEDIUM;
+                    break;
+            }
+        }
+
+        // Si la prioridad viene explícitamente indicada, respetarla
+        if (payload != null && payload.containsKey("priority")) {
+            try {
+                String priorityStr = payload.get("priority").toString();
+                Priority explicitPriority = Priority.valueOf(priorityStr);
+                log.info("Usando prioridad explícita: {}", explicitPriority);
+                return explicitPriority;
+            } catch (Exception e) {
+                log.warn("Prioridad especificada inválida: {}", e.getMessage());
+            }
+        }
+
+        log.info("Prioridad calculada para operación {}: {}", operationType, calculatedPriority);
+        return calculatedPriority;
+    }
+
+    /**
+     * Crea la entidad de solicitud en estado PENDING; el payload se asigna con {@link PayloadCodec}
+     */
+    public OperationRequest buildRequest(OperationType type, ClusterType clusterType, Integer zoneId,
+                                         Long userId, Priority priority, String queueName) {
+        return OperationRequest.builder()
+                .operationType(type)
+                .clusterType(clusterType)
+                .zoneId(zoneId)
+                .userId(userId)
+                .priority(priority)
+                .submittedAt(LocalDateTime.now())
+                .status(OperationStatus.PENDING)
+                .retryCount(0)
+                .maxRetries(maxRetryAttempts)
+                .queueName(queueName)
+                .build();
+    }
+
+    /**
+     * Crea el item que se publica en Kafka para una solicitud ya persistida
+     */
+    public QueueItem buildQueueItem(OperationRequest operationRequest, Map<String, Object> payload) {
+        QueueItem queueItem = QueueItem.builder()
+                .id(operationRequest.getId())
+                .queueName(operationRequest.getQueueName())
+                .operationType(operationRequest.getOperationType())
+                .clusterType(operationRequest.getClusterType())
+                .zoneId(operationRequest.getZoneId())
+                .userId(operationRequest.getUserId())
+                .payload(payload)
+                .priority(operationRequest.getPriority())
+                .enqueuedAt(operationRequest.getSubmittedAt())
+                .status(operationRequest.getStatus())
+                .retryCount(operationRequest.getRetryCount())
+                .maxRetries(operationRequest.getMaxRetries())
+                .routingKey(operationRequest.getRoutingKey() != null
+                        ? operationRequest.getRoutingKey()
+                        : RoutingKeys.of(operationRequest.getOperationType(), operationRequest.getUserId(), payload))
+                .build();
+        // Los payloads grandes viajan por referencia
+        return claimCheckStore.checkIn(queueItem);
+    }
+
+    /**
+     * Cola y tópico para el cluster, zona y prioridad, desde la tabla precalculada
+     * @throws IllegalArgumentException si la zona no está configurada
+     */
+    public QueueRoute route(ClusterType clusterType, Integer zoneId, Priority priority) {
+        return queueCatalog.route(clusterType, zoneId, priority);
+    }
+
+    /**
+     * Construye el nombre de la cola basado en el cluster, zona y prioridad
+     */
+    public String buildQueueName(ClusterType clusterType, Integer zoneId, Priority priority) {
+        return route(clusterType, zoneId, priority).getQueueName();
+    }
+
+    /**
+     * Retorna el nombre del tópico Kafka para la cola especificada
+     */
+    public String getKafkaTopicForQueue(String queueName) {
+        return queueCatalog.route(queueName).getTopic();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationStatusUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consume por lotes los eventos de estado de los workers. El tamaño del lote lo
+ * marcan max.poll.records y fetch.max.wait.ms (ver KafkaConfig). Si la BD no está
+ * disponible el lote se reintenta entero; si falla por otro motivo se aplica evento
+ * a evento para que solo el que falla acabe en el DLT de estados.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OperationStatusConsumer {
+
+    private final OperationStatusIngestService operationStatusIngestService;
+
+    @KafkaListener(topics = "${kafka.topics.status}", containerFactory = "statusBatchListenerContainerFactory")
+    public void onStatusUpdates(List<ConsumerRecord<String, OperationStatusUpdate>> records) {
+        List<OperationStatusUpdate> updates = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, OperationStatusUpdate> record : records) {
+            // ErrorHandlingDeserializer deja el valor en null si el mensaje no se pudo leer
+            if (record.value() == null) {
+                log.warn("Evento de estado ilegible en {}-{}@{}, se descarta",
+                        record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            updates.add(record.value());
+        }
+        try {
+            operationStatusIngestService.applyUpdates(updates);
+        } catch (TransientDataAccessException | DataAccessResourceFailureException
+                 | RecoverableDataAccessException | CannotCreateTransactionException e) {
+            // BD no disponible: el error handler reintenta el lote completo sin límite
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Error aplicando el lote de {} eventos de estado, se aplican uno a uno: {}",
+                    records.size(), e.getMessage());
+            applyOneByOne(records);
+        }
+    }
+
+    /**
+     * Aísla el evento que falla: los anteriores quedan aplicados y ese se señala al
+     * error handler para que lo reintente y lo envíe al DLT sin descartar el resto
+     */
+    private void applyOneByOne(List<ConsumerRecord<String, OperationStatusUpdate>> records) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, OperationStatusUpdate> record = records.get(i);
+            if (record.value() == null) {
+                continue;
+            }
+            try {
+                operationStatusIngestService.applyUpdates(List.of(record.value()));
+            } catch (TransientDataAccessException | DataAccessResourceFailureException
+                     | RecoverableDataAccessException | CannotCreateTransactionException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("Evento de estado no aplicable", e, i);
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationRequest;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusUpdate;
+import com.example.queuemanagermodule.model.OperationSummary;
+import com.example.queuemanagermodule.repository.OperationRequestJdbcRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aplica los eventos de estado de los workers sobre operation_requests. Las
+ * actualizaciones de un lote se agrupan por operación (inicio + fin llegan como
+ * un solo cambio) y se escriben en un único batch JDBC condicionado al estado
+ * y al intento leídos, de modo que eventos duplicados o tardíos no retroceden una
+ * operación. Cada evento trae el intento (retryCount del QueueItem) al que
+ * pertenece: tras un reintento la fila vuelve a PENDING con retry_count + 1, así
+ * que los eventos del intento anterior se descartan. Los eventos sin intento, de
+ * workers anteriores a este campo, se aplican como antes.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OperationStatusIngestService {
+
+    private final OperationRequestJdbcRepository operationRequestJdbcRepository;
+    private final OperationEventPublisher operationEventPublisher;
+    private final PayloadCodec payloadCodec;
+
+    @Value("${queue.retry.enabled:true}")
+    private boolean retryEnabled;
+
+    /**
+     * Aplica un lote de eventos y devuelve cuántas operaciones cambiaron de estado
+     */
+    @Transactional
+    public int applyUpdates(List<OperationStatusUpdate> updates) {
+        Map<Long, Coalesced> coalesced = coalesce(updates);
+        int applied = apply(coalesced);
+        log.debug("Lote de estados aplicado: {} eventos, {} operaciones, {} cambios",
+                updates.size(), coalesced.size(), applied);
+        return applied;
+    }
+
+    /**
+     * Marca como TIMEOUT las operaciones indicadas que sigan IN_PROGRESS
+     */
+    @Transactional
+    public int applyTimeouts(Collection<Long> operationIds, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Coalesced> timeouts = new LinkedHashMap<>();
+        for (Long operationId : operationIds) {
+            Coalesced change = new Coalesced(operationId);
+            change.status = OperationStatus.TIMEOUT;
+            change.completedAt = now;
+            change.errorMessage = errorMessage;
+            timeouts.put(operationId, change);
+        }
+        return apply(timeouts);
+    }
+
+    private int apply(Map<Long, Coalesced> coalesced) {
+        if (coalesced.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, OperationSummary> current = operationRequestJdbcRepository.findSummariesByIds(coalesced.keySet());
+
+        List<OperationRequest> changes = new ArrayList<>(coalesced.size());
+        List<OperationStatus> expected = new ArrayList<>(coalesced.size());
+        List<Integer> expectedRetryCounts = new ArrayList<>(coalesced.size());
+        List<Coalesced> sources = new ArrayList<>(coalesced.size());
+        for (Coalesced change : coalesced.values()) {
+            OperationSummary row = current.get(change.operationId);
+            if (row == null) {
+                log.warn("Evento de estado para operación desconocida o archivada: {}", change.operationId);
+                continue;
+            }
+            int rowAttempt = row.getRetryCount() != null ? row.getRetryCount() : 0;
+            if (change.attempt != null && change.attempt != rowAttempt) {
+                log.debug("Evento {} del intento {} ignorado para operación {}, que va por el intento {}",
+                        change.status, change.attempt, change.operationId, rowAttempt);
+                continue;
+            }
+            if (!isAllowed(row.getStatus(), change.status)) {
+                log.debug("Evento {} ignorado para operación {} en estado {}",
+                        change.status, change.operationId, row.getStatus());
+                continue;
+            }
+
+            // Un fallo con intentos restantes vuelve a PENDING y lo reencola RetryScheduler
+            change.retry = retryEnabled && change.status == OperationStatus.FAILED && hasRetriesLeft(row);
+            change.attemptStartedAt = row.getStartedAt() != null ? row.getStartedAt() : change.startedAt;
+
+            try {
+                changes.add(toRequest(row, change));
+                expected.add(row.getStatus());
+                expectedRetryCounts.add(rowAttempt);
+                sources.add(change);
+            } catch (JsonProcessingException e) {
+                log.error("Resultado inválido para operación {}: {}", change.operationId, e.getMessage());
+            }
+        }
+
+        boolean[] applied = operationRequestJdbcRepository.updateStatuses(changes, expected, expectedRetryCounts);
+
+        int appliedCount = 0;
+        for (int i = 0; i < changes.size(); i++) {
+            if (!applied[i]) {
+                log.debug("Operación {} cambió de estado concurrentemente, se omite", changes.get(i).getId());
+                continue;
+            }
+            appliedCount++;
+            publishEvents(changes.get(i), expected.get(i), sources.get(i));
+        }
+        return appliedCount;
+    }
+
+    private Map<Long, Coalesced> coalesce(List<OperationStatusUpdate> updates) {
+        Map<Long, Coalesced> byOperation = new LinkedHashMap<>();
+        for (OperationStatusUpdate update : updates) {
+            if (update.getOperationId() == null || update.getStatus() == null) {
+                continue;
+            }
+            LocalDateTime timestamp = update.getTimestamp() != null ? update.getTimestamp() : LocalDateTime.now();
+            Coalesced change = byOperation.get(update.getOperationId());
+            if (change != null && update.getAttempt() != null && change.attempt != null
+                    && !update.getAttempt().equals(change.attempt)) {
+                if (update.getAttempt() < change.attempt) {
+                    continue;
+                }
+                // Evento de un intento posterior: lo anterior del lote ya no cuenta
+                change = null;
+            }
+            if (change == null) {
+                change = new Coalesced(update.getOperationId());
+                byOperation.put(update.getOperationId(), change);
+            }
+            if (update.getAttempt() != null) {
+                change.attempt = update.getAttempt();
+            }
+
+            switch (update.getStatus()) {
+                case IN_PROGRESS -> {
+                    if (change.startedAt == null || timestamp.isBefore(change.startedAt)) {
+                        change.startedAt = timestamp;
+                    }
+                    if (change.status == null) {
+                        change.status = OperationStatus.IN_PROGRESS;
+                    }
+                }
+                case COMPLETED, FAILED -> {
+                    change.status = update.getStatus();
+                    change.completedAt = timestamp;
+                    change.errorMessage = update.getErrorMessage();
+                    change.result = update.getResult();
+                }
+                default -> log.warn("Estado {} no admitido desde los workers (operación {})",
+                        update.getStatus(), update.getOperationId());
+            }
+        }
+        byOperation.values().removeIf(change -> change.status == null);
+        return byOperation;
+    }
+
+    private boolean isAllowed(OperationStatus current, OperationStatus next) {
+        if (next == OperationStatus.TIMEOUT) {
+            return current == OperationStatus.IN_PROGRESS;
+        }
+        if (current == OperationStatus.PENDING) {
+            return true;
+        }
+        return current == OperationStatus.IN_PROGRESS && next != OperationStatus.IN_PROGRESS;
+    }
+
+    private static boolean hasRetriesLeft(OperationSummary row) {
+        int retryCount = row.getRetryCount() != null ? row.getRetryCount() : 0;
+        return row.getMaxRetries() != null && retryCount < row.getMaxRetries();
+    }
+
+    private OperationRequest toRequest(OperationSummary row, Coalesced change) throws JsonProcessingException {
+        if (change.retry) {
+            // El intento fallido se descarta: sin marcas de inicio ni fin, con el error como referencia
+            return OperationRequest.builder()
+                    .id(row.getId())
+                    .queueName(row.getQueueName())
+                    .operationType(row.getOperationType())
+                    .clusterType(row.getClusterType())
+                    .zoneId(row.getZoneId())
+                    .userId(row.getUserId())
+                    .priority(row.getPriority())
+                    .submittedAt(row.getSubmittedAt())
+                    .status(OperationStatus.PENDING)
+                    .errorMessage(change.errorMessage)
+                    .retryCount((row.getRetryCount() != null ? row.getRetryCount() : 0) + 1)
+                    .maxRetries(row.getMaxRetries())
+                    .build();
+        }
+        OperationRequest request = OperationRequest.builder()
+                .id(row.getId())
+                .queueName(row.getQueueName())
+                .operationType(row.getOperationType())
+                .clusterType(row.getClusterType())
+                .zoneId(row.getZoneId())
+                .userId(row.getUserId())
+                .priority(row.getPriority())
+                .submittedAt(row.getSubmittedAt())
+                .startedAt(row.getStartedAt() != null ? row.getStartedAt() : change.startedAt)
+                .completedAt(change.completedAt)
+                .status(change.status)
+                .errorMessage(change.errorMessage)
+                .retryCount(row.getRetryCount())
+                .maxRetries(row.getMaxRetries())
+                .build();
+        if (change.result != null) {
+            payloadCodec.writeResult(request, change.result);
+        }
+        return request;
+    }
+
+    private void publishEvents(OperationRequest request, OperationStatus previous, Coalesced change) {
+        if (change.retry) {
+            if (previous == OperationStatus.PENDING) {
+                // El evento intermedio lleva el inicio del intento, que ya no está en BD
+                request.setStartedAt(change.attemptStartedAt);
+                operationEventPublisher.publishTransition(request, OperationStatus.PENDING, OperationStatus.IN_PROGRESS);
+                request.setStartedAt(null);
+            }
+            operationEventPublisher.publishRetry(request, change.attemptStartedAt, change.completedAt);
+            return;
+        }
+
+        // Si el inicio y el fin se agruparon, se notifican ambos pasos para que las
+        // métricas de espera y procesamiento reciban sus muestras
+        if (previous == OperationStatus.PENDING && request.getStatus() != OperationStatus.IN_PROGRESS
+                && request.getStartedAt() != null) {
+            operationEventPublisher.publishTransition(request, OperationStatus.PENDING, OperationStatus.IN_PROGRESS);
+            operationEventPublisher.publishTransition(request, OperationStatus.IN_PROGRESS);
+        } else {
+            operationEventPublisher.publishTransition(request, previous);
+        }
+    }
+
+    /**
+     * Estado resultante de todos los eventos de una operación dentro del lote
+     */
+    private static final class Coalesced {
+        private final Long operationId;
+        private Integer attempt;
+        private OperationStatus status;
+        private LocalDateTime startedAt;
+        private LocalDateTime completedAt;
+        private String errorMessage;
+        private Map<String, Object> result;
+        private boolean retry;
+        private LocalDateTime attemptStartedAt;
+
+        private Coalesced(Long operationId) {
+            this.operationId = operationId;
+        }
+    }
+}
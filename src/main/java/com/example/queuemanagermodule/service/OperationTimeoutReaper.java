@@ -0,0 +1,142 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.util.HierarchicalTimingWheel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pasa a TIMEOUT las operaciones que llevan más de queue.timeout.seconds en
+ * IN_PROGRESS. Cada operación que empieza registra su plazo en una rueda de
+ * temporización en memoria y lo cancela al terminar, así que no hace falta
+ * recorrer la tabla. Los plazos vencidos se aplican por lotes con una
+ * actualización condicionada a IN_PROGRESS. Al arrancar (y cada
+ * queue.timeout.recovery-interval-ms, para recoger operaciones iniciadas en otras
+ * instancias) se cargan los plazos de las operaciones IN_PROGRESS de la BD.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OperationTimeoutReaper {
+
+    private static final String SELECT_IN_PROGRESS =
+            "SELECT id, started_at FROM operation_requests WHERE status = 'IN_PROGRESS'";
+
+    private final OperationStatusIngestService operationStatusIngestService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${queue.timeout.seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${queue.timeout.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${queue.timeout.batch-size:500}")
+    private int batchSize;
+
+    private HierarchicalTimingWheel wheel;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OperationStatusChangedEvent event) {
+        if (event.getOperationId() == null || event.getNewStatus() == null) {
+            return;
+        }
+        if (event.getNewStatus() == OperationStatus.IN_PROGRESS) {
+            long startedAt = event.getStartedAt() != null
+                    ? Timestamp.valueOf(event.getStartedAt()).getTime()
+                    : System.currentTimeMillis();
+            schedule(event.getOperationId(), startedAt);
+        } else {
+            // Terminal o de vuelta a PENDING para reintentarse
+            synchronized (this) {
+                if (wheel != null) {
+                    wheel.cancel(event.getOperationId());
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        recover();
+    }
+
+    /**
+     * Registra los plazos de todas las operaciones IN_PROGRESS de la BD. Reprogramar
+     * una operación ya registrada deja el mismo plazo.
+     */
+    @Scheduled(fixedDelayString = "${queue.timeout.recovery-interval-ms:600000}",
+            initialDelayString = "${queue.timeout.recovery-interval-ms:600000}")
+    public void recover() {
+        try {
+            long now = System.currentTimeMillis();
+            int[] loaded = {0};
+            jdbcTemplate.query(SELECT_IN_PROGRESS, rs -> {
+                Timestamp startedAt = rs.getTimestamp(2);
+                schedule(rs.getLong(1), startedAt != null ? startedAt.getTime() : now);
+                loaded[0]++;
+            });
+            log.debug("Plazos de timeout cargados para {} operaciones en curso", loaded[0]);
+        } catch (Exception e) {
+            log.error("Error cargando las operaciones en curso para el control de timeout", e);
+        }
+    }
+
+    /**
+     * Avanza la rueda y marca como TIMEOUT los plazos vencidos
+     */
+    @Scheduled(fixedDelayString = "${queue.timeout.check-interval-ms:1000}")
+    public void expire() {
+        List<Long> expired = new ArrayList<>();
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            wheel.advance(System.currentTimeMillis(), expired::add);
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        String message = "Operación sin respuesta tras " + timeoutSeconds + " segundos";
+        int applied = 0;
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                applied += operationStatusIngestService.applyTimeouts(batch, message);
+            } catch (Exception e) {
+                // Se reprograman para el siguiente ciclo en lugar de perder el plazo
+                log.error("Error marcando {} operaciones como TIMEOUT", batch.size(), e);
+                long retryAt = System.currentTimeMillis() + tickMs;
+                synchronized (this) {
+                    batch.forEach(id -> wheel.schedule(id, retryAt));
+                }
+            }
+        }
+        log.info("{} operaciones vencidas, {} marcadas como TIMEOUT", expired.size(), applied);
+    }
+
+    public synchronized int pending() {
+        return wheel != null ? wheel.size() : 0;
+    }
+
+    private synchronized void schedule(long operationId, long startedAtMs) {
+        if (wheel == null) {
+            long timeoutMs = timeoutSeconds * 1000;
+            wheel = new HierarchicalTimingWheel(tickMs, 64, timeoutMs, System.currentTimeMillis());
+        }
+        wheel.schedule(operationId, startedAtMs + timeoutSeconds * 1000);
+    }
+}
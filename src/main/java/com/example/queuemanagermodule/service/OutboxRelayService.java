@@ -0,0 +1,177 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OutboxEvent;
+import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.repository.OperationRequestRepository;
+import com.example.queuemanagermodule.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drena el outbox de operaciones hacia Kafka en lotes. Todos los envíos de un lote
+ * se disparan antes de esperar cualquier ack, de modo que el costo por lote es
+ * aproximadamente un round trip al broker y no uno por operación.
+ * <p>
+ * Ninguna transacción queda abierta mientras se espera a Kafka: una transacción
+ * corta reclama el lote (next_attempt_at = ahora + queue.outbox.claim-lease-ms),
+ * los envíos y los acks van fuera de ella y una segunda transacción registra el
+ * resultado. Si la instancia cae en medio, otro relay retoma los eventos al vencer
+ * el lease. Un evento que falla espera queue.outbox.retry-backoff-ms, el doble en
+ * cada intento y como mucho queue.outbox.retry-max-backoff-ms, hasta agotar
+ * queue.outbox.max-attempts. Los resultados solo se aplican a eventos que siguen
+ * PENDING, así que una cancelación durante el envío no se pisa.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "queue.outbox.enabled", havingValue = "true")
+public class OutboxRelayService {
+
+    private static final String PUBLISH_ERROR = "Error al publicar en Kafka";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OperationRequestRepository operationRequestRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final OperationEventPublisher operationEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${queue.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${queue.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${queue.outbox.ack-timeout-ms:10000}")
+    private long ackTimeoutMs;
+
+    @Value("${queue.outbox.claim-lease-ms:30000}")
+    private long claimLeaseMs;
+
+    @Value("${queue.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${queue.outbox.retry-max-backoff-ms:60000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${queue.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    /**
+     * Publica el siguiente lote de eventos pendientes y registra el resultado de cada ack
+     */
+    @Scheduled(fixedDelayString = "${queue.outbox.relay-interval-ms:200}")
+    public void relayPendingEvents() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimNextBatch());
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        log.debug("Publicando lote de {} eventos del outbox", batch.size());
+
+        // Disparar todos los envíos antes de esperar cualquier confirmación
+        List<QueueItem> queueItems = new ArrayList<>(batch.size());
+        List<CompletableFuture<SendResult<String, QueueItem>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                QueueItem queueItem = objectMapper.readValue(event.getQueueItemJson(), QueueItem.class);
+                queueItems.add(queueItem);
+                futures.add(kafkaProducerService.sendQueueItemAsync(event.getTopicName(), queueItem));
+            } catch (Exception e) {
+                queueItems.add(null);
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        List<String> errors = new ArrayList<>(batch.size());
+        for (CompletableFuture<SendResult<String, QueueItem>> future : futures) {
+            errors.add(kafkaProducerService.awaitAck(future, deadline));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> recordResults(batch, queueItems, errors));
+    }
+
+    private List<OutboxEvent> claimNextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockNextPendingBatch(batchSize, now);
+        if (!batch.isEmpty()) {
+            outboxEventRepository.claim(batch.stream().map(OutboxEvent::getId).toList(),
+                    now.plusNanos(TimeUnit.MILLISECONDS.toNanos(claimLeaseMs)));
+        }
+        return batch;
+    }
+
+    private void recordResults(List<OutboxEvent> batch, List<QueueItem> queueItems, List<String> errors) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> publishedIds = new ArrayList<>();
+        List<Long> exhaustedOperationIds = new ArrayList<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            String error = errors.get(i);
+            if (error == null) {
+                publishedIds.add(event.getId());
+                continue;
+            }
+
+            int attempts = event.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                if (outboxEventRepository.markFailed(event.getId(), attempts, error) == 0) {
+                    continue;
+                }
+                exhaustedOperationIds.add(event.getOperationId());
+                if (queueItems.get(i) != null) {
+                    operationEventPublisher.publishTransition(queueItems.get(i),
+                            OperationStatus.PENDING, OperationStatus.FAILED);
+                }
+                log.error("Evento de outbox {} (operación {}) marcado como FAILED tras {} intentos: {}",
+                        event.getId(), event.getOperationId(), attempts, error);
+            } else {
+                long backoffMs = Math.min(retryMaxBackoffMs, retryBackoffMs << Math.min(attempts - 1, 30));
+                outboxEventRepository.recordFailure(event.getId(), attempts, error,
+                        now.plusNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs)));
+                log.warn("Fallo publicando evento de outbox {} (intento {}/{}, reintento en {} ms): {}",
+                        event.getId(), attempts, maxAttempts, backoffMs, error);
+            }
+        }
+
+        if (!publishedIds.isEmpty()) {
+            outboxEventRepository.markPublished(publishedIds, now);
+        }
+        if (!exhaustedOperationIds.isEmpty()) {
+            operationRequestRepository.updateStatusForIds(exhaustedOperationIds, OperationStatus.FAILED,
+                    PUBLISH_ERROR, now, OperationStatus.PENDING);
+        }
+
+        log.info("Lote de outbox procesado: {} publicados, {} con error",
+                publishedIds.size(), batch.size() - publishedIds.size());
+    }
+
+    /**
+     * Elimina los eventos ya publicados o cancelados que superaron el tiempo de retención
+     */
+    @Scheduled(fixedRate = 3600000) // 1 hora
+    @Transactional
+    public void purgePublishedEvents() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Eliminados {} eventos publicados del outbox", deleted);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.queuemanagermodule.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantiene las particiones mensuales de operation_requests (ver V2 en db/migration).
+ * Antes de que empiece cada mes divide p_future para crear su partición, de modo
+ * que las consultas por rango de submitted_at sigan podando las antiguas.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+
+    private static final String TABLE_NAME = "operation_requests";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("p(\\d{4})(\\d{2})");
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String SELECT_PARTITIONS =
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${queue.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureFuturePartitions();
+    }
+
+    /**
+     * Crea las particiones que falten hasta monthsAhead meses desde el actual
+     */
+    @Scheduled(cron = "${queue.partitions.maintenance-cron:0 0 3 * * *}")
+    public void ensureFuturePartitions() {
+        try {
+            List<String> partitions = jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class, TABLE_NAME);
+            if (partitions.isEmpty()) {
+                log.warn("La tabla {} no está particionada, se omite el mantenimiento", TABLE_NAME);
+                return;
+            }
+            if (!partitions.contains(FUTURE_PARTITION)) {
+                log.warn("La tabla {} no tiene la partición {}, se omite el mantenimiento", TABLE_NAME, FUTURE_PARTITION);
+                return;
+            }
+
+            YearMonth next = lastMonthlyPartition(partitions);
+            next = next != null ? next.plusMonths(1) : YearMonth.now();
+            YearMonth target = YearMonth.now().plusMonths(monthsAhead);
+
+            int created = 0;
+            while (!next.isAfter(target)) {
+                addMonthlyPartition(next);
+                next = next.plusMonths(1);
+                created++;
+            }
+
+            if (created > 0) {
+                log.info("Creadas {} particiones mensuales en {} (hasta {})", created, TABLE_NAME, target);
+            }
+        } catch (Exception e) {
+            log.error("Error en el mantenimiento de particiones de {}", TABLE_NAME, e);
+        }
+    }
+
+    private void addMonthlyPartition(YearMonth month) {
+        String sql = "ALTER TABLE " + TABLE_NAME + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                "PARTITION " + month.format(PARTITION_NAME) +
+                " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))";
+        log.debug("Creando partición {}: {}", month.format(PARTITION_NAME), sql);
+        jdbcTemplate.execute(sql);
+    }
+
+    private YearMonth lastMonthlyPartition(List<String> partitions) {
+        YearMonth last = null;
+        for (String partition : partitions) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (matcher.matches()) {
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (last == null || month.isAfter(last)) {
+                    last = month;
+                }
+            }
+        }
+        return last;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato de almacenamiento del payload y el resultado de una operación.
+ * Con queue.storage.codec=smile-deflate se guardan en payload_blob/result_blob como
+ * [versión][Smile comprimido con Deflate]; con json (por defecto) en las columnas
+ * JSON de siempre. La lectura acepta ambos, así que las filas antiguas siguen
+ * siendo legibles tras cambiar el codec.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadCodec {
+
+    public static final String CODEC_JSON = "json";
+    public static final String CODEC_SMILE_DEFLATE = "smile-deflate";
+
+    // Primer byte del blob; permite cambiar el formato sin migrar filas
+    public static final byte FORMAT_SMILE_DEFLATE = 1;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+    private static final SmileMapper SMILE_MAPPER = new SmileMapper();
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${queue.storage.codec:json}")
+    private String codec = CODEC_JSON;
+
+    @Value("${queue.storage.deflate-level:6}")
+    private int deflateLevel = 6;
+
+    public void writePayload(OperationRequest request, Map<String, Object> payload) throws JsonProcessingException {
+        if (isCompact()) {
+            request.setPayloadBlob(payload != null ? encode(payload) : null);
+            request.setPayloadJson(null);
+        } else {
+            request.setPayloadJson(objectMapper.writeValueAsString(payload));
+            request.setPayloadBlob(null);
+        }
+    }
+
+    public void writeResult(OperationRequest request, Map<String, Object> result) throws JsonProcessingException {
+        if (isCompact()) {
+            request.setResultBlob(result != null ? encode(result) : null);
+            request.setResultJson(null);
+        } else {
+            request.setResultJson(objectMapper.writeValueAsString(result));
+            request.setResultBlob(null);
+        }
+    }
+
+    public Map<String, Object> readPayload(OperationRequest request) throws JsonProcessingException {
+        return read(request.getPayloadBlob(), request.getPayloadJson());
+    }
+
+    public Map<String, Object> readResult(OperationRequest request) throws JsonProcessingException {
+        return read(request.getResultBlob(), request.getResultJson());
+    }
+
+    /**
+     * Codifica un valor en el formato compacto, con el byte de versión delante
+     */
+    public byte[] encode(Object value) throws JsonProcessingException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        buffer.write(FORMAT_SMILE_DEFLATE);
+        Deflater deflater = new Deflater(deflateLevel);
+        try (OutputStream out = new DeflaterOutputStream(buffer, deflater)) {
+            SMILE_MAPPER.writeValue(out, value);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+
+    public Map<String, Object> decode(byte[] data) throws JsonProcessingException {
+        if (data.length == 0 || data[0] != FORMAT_SMILE_DEFLATE) {
+            throw new IllegalStateException("Formato de payload desconocido: " + (data.length > 0 ? data[0] : "vacío"));
+        }
+        Inflater inflater = new Inflater();
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data, 1, data.length - 1), inflater)) {
+            return SMILE_MAPPER.readValue(in, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private Map<String, Object> read(byte[] blob, String json) throws JsonProcessingException {
+        if (blob != null) {
+            return decode(blob);
+        }
+        return json != null ? objectMapper.readValue(json, MAP_TYPE) : null;
+    }
+
+    private boolean isCompact() {
+        return CODEC_SMILE_DEFLATE.equals(codec);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.ClusterType;
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.model.QueueRoute;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Catálogo de colas y tabla de enrutado precalculada. Las zonas de cada cluster
+ * salen de queue.catalog.zones (por ejemplo LINUX:1,2;OPENSTACK:1) y cada
+ * combinación (cluster, zona, prioridad) se resuelve al arrancar a su cola y su
+ * tópico: kafka.topics.&lt;COLA&gt; si está definido, si no el patrón
+ * queue.catalog.topic-pattern. Las particiones dependen de la prioridad
+ * (kafka.partitions.high/medium/low). Una combinación fuera del catálogo se
+ * rechaza en lugar de caer en un tópico por defecto.
+ */
+@Component
+@Slf4j
+public class QueueCatalog {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Map<ClusterType, Map<Integer, QueueRoute[]>> routes = new EnumMap<>(ClusterType.class);
+    private final Map<String, QueueRoute> routesByQueueName = new HashMap<>();
+    private final List<QueueRoute> allRoutes = new ArrayList<>();
+
+    public QueueCatalog(Environment environment,
+                        @Value("${queue.catalog.zones:LINUX:1}") String zones,
+                        @Value("${queue.catalog.topic-pattern:{cluster}-zone{zone}-{priority}}") String topicPattern,
+                        @Value("${kafka.partitions.high:8}") int highPartitions,
+                        @Value("${kafka.partitions.medium:4}") int mediumPartitions,
+                        @Value("${kafka.partitions.low:2}") int lowPartitions) {
+        Map<Priority, Integer> partitions = new EnumMap<>(Priority.class);
+        partitions.put(Priority.HIGH, highPartitions);
+        partitions.put(Priority.MEDIUM, mediumPartitions);
+        partitions.put(Priority.LOW, lowPartitions);
+
+        parseZones(zones).forEach((clusterType, zoneIds) -> {
+            Map<Integer, QueueRoute[]> byZone = new HashMap<>();
+            for (Integer zoneId : zoneIds) {
+                QueueRoute[] byPriority = new QueueRoute[PRIORITIES.length];
+                for (Priority priority : PRIORITIES) {
+                    String queueName = clusterType.name() + "_ZONE" + zoneId + "_" + priority.name();
+                    String topic = environment.getProperty("kafka.topics." + queueName, topicPattern
+                            .replace("{cluster}", clusterType.name().toLowerCase(Locale.ROOT))
+                            .replace("{zone}", String.valueOf(zoneId))
+                            .replace("{priority}", priority.name().toLowerCase(Locale.ROOT)));
+                    QueueRoute route = QueueRoute.builder()
+                            .clusterType(clusterType)
+                            .zoneId(zoneId)
+                            .priority(priority)
+                            .queueName(queueName)
+                            .topic(topic)
+                            .partitions(partitions.get(priority))
+                            .build();
+                    byPriority[priority.ordinal()] = route;
+                    routesByQueueName.put(queueName, route);
+                    allRoutes.add(route);
+                }
+                byZone.put(zoneId, byPriority);
+            }
+            routes.put(clusterType, byZone);
+        });
+        log.info("Catálogo de colas: {} colas configuradas", allRoutes.size());
+    }
+
+    /**
+     * Ruta de la combinación indicada
+     * @throws IllegalArgumentException si el cluster o la zona no están en el catálogo
+     */
+    public QueueRoute route(ClusterType clusterType, Integer zoneId, Priority priority) {
+        Map<Integer, QueueRoute[]> byZone = clusterType != null ? routes.get(clusterType) : null;
+        QueueRoute[] byPriority = byZone != null ? byZone.get(zoneId) : null;
+        if (byPriority == null || priority == null) {
+            throw new IllegalArgumentException("No hay cola configurada para cluster " + clusterType +
+                    ", zona " + zoneId + " y prioridad " + priority);
+        }
+        return byPriority[priority.ordinal()];
+    }
+
+    /**
+     * Ruta de una cola por su nombre
+     * @throws IllegalArgumentException si la cola no está en el catálogo
+     */
+    public QueueRoute route(String queueName) {
+        QueueRoute route = routesByQueueName.get(queueName);
+        if (route == null) {
+            throw new IllegalArgumentException("Cola no configurada: " + queueName);
+        }
+        return route;
+    }
+
+    public List<QueueRoute> routes() {
+        return Collections.unmodifiableList(allRoutes);
+    }
+
+    public List<String> queueNames() {
+        return allRoutes.stream().map(QueueRoute::getQueueName).toList();
+    }
+
+    private static Map<ClusterType, List<Integer>> parseZones(String zones) {
+        Map<ClusterType, List<Integer>> result = new LinkedHashMap<>();
+        for (String entry : zones.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada inválida en queue.catalog.zones: " + entry);
+            }
+            ClusterType clusterType = ClusterType.valueOf(parts[0].trim());
+            List<Integer> zoneIds = result.computeIfAbsent(clusterType, c -> new ArrayList<>());
+            for (String zone : parts[1].split(",")) {
+                if (!zone.isBlank()) {
+                    zoneIds.add(Integer.parseInt(zone.trim()));
+                }
+            }
+        }
+        return result;
+    }
+}
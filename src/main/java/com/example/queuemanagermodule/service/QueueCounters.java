@@ -0,0 +1,164 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.repository.OperationArchiveRepository;
+import com.example.queuemanagermodule.repository.OperationRequestRepository;
+import com.example.queuemanagermodule.repository.QueueAverage;
+import com.example.queuemanagermodule.repository.QueueStatusCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores en memoria de operaciones por cola y estado. Se actualizan en cada
+ * transición confirmada, se siembran desde la BD al arrancar y se reconcilian
+ * periódicamente para corregir cualquier deriva (por ejemplo, cambios hechos
+ * por otra instancia). Los conteos incluyen las operaciones ya archivadas.
+ * Las lecturas son O(1) y nunca tocan la BD.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class QueueCounters {
+
+    private static final OperationStatus[] STATUSES = OperationStatus.values();
+
+    private final OperationRequestRepository operationRequestRepository;
+    private final OperationArchiveRepository operationArchiveRepository;
+
+    private final ConcurrentHashMap<String, QueueCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Aplica una transición de estado a los contadores de su cola
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OperationStatusChangedEvent event) {
+        if (event.getQueueName() == null || event.getPreviousStatus() == event.getNewStatus()) {
+            return;
+        }
+        QueueCounter counter = counter(event.getQueueName());
+        if (event.getPreviousStatus() != null) {
+            counter.byStatus[event.getPreviousStatus().ordinal()].decrement();
+        }
+        counter.byStatus[event.getNewStatus().ordinal()].increment();
+    }
+
+    /**
+     * Cantidad actual de operaciones de la cola en el estado indicado
+     */
+    public long get(String queueName, OperationStatus status) {
+        QueueCounter counter = counters.get(queueName);
+        return counter != null ? Math.max(0, counter.byStatus[status.ordinal()].sum()) : 0L;
+    }
+
+    public Double getAverageWaitTimeSeconds(String queueName) {
+        QueueCounter counter = counters.get(queueName);
+        return counter != null ? counter.averageWaitTimeSeconds : null;
+    }
+
+    public Double getAverageProcessingTimeSeconds(String queueName) {
+        QueueCounter counter = counters.get(queueName);
+        return counter != null ? counter.averageProcessingTimeSeconds : null;
+    }
+
+    /**
+     * Colas que han tenido al menos una operación
+     */
+    public Set<String> queueNames() {
+        return counters.keySet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+
+    /**
+     * Recalcula los contadores desde la BD con una sola consulta agrupada. Los
+     * contadores se leen antes de la consulta y a cada uno se le suma la diferencia
+     * entre la BD y esa lectura, así que las transiciones aplicadas mientras dura la
+     * consulta se conservan encima del valor corregido. Solo puede contarse dos
+     * veces una transición confirmada antes de la consulta cuyo evento llegue
+     * después de la lectura; la siguiente reconciliación lo corrige.
+     */
+    @Scheduled(fixedDelayString = "${queue.stats.reconcile-interval-ms:60000}",
+            initialDelayString = "${queue.stats.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            Map<String, long[]> before = new HashMap<>();
+            counters.forEach((queueName, counter) -> {
+                long[] sums = new long[STATUSES.length];
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] = counter.byStatus[i].sum();
+                }
+                before.put(queueName, sums);
+            });
+
+            Map<String, Map<OperationStatus, Long>> fromDb = new HashMap<>();
+            for (QueueStatusCount row : operationRequestRepository.countGroupedByQueueNameAndStatus()) {
+                fromDb.computeIfAbsent(row.getQueueName(), q -> new EnumMap<>(OperationStatus.class))
+                        .put(row.getStatus(), row.getTotal());
+            }
+            // Las operaciones archivadas siguen contando como completadas/fallidas
+            operationArchiveRepository.countGroupedByQueueNameAndStatus().forEach((queueName, byStatus) ->
+                    byStatus.forEach((status, total) -> fromDb
+                            .computeIfAbsent(queueName, q -> new EnumMap<>(OperationStatus.class))
+                            .merge(status, total, Long::sum)));
+
+            Set<String> queueNames = new HashSet<>(counters.keySet());
+            queueNames.addAll(fromDb.keySet());
+            for (String queueName : queueNames) {
+                QueueCounter counter = counter(queueName);
+                Map<OperationStatus, Long> expected = fromDb.getOrDefault(queueName, Map.of());
+                long[] sums = before.get(queueName);
+                for (OperationStatus status : STATUSES) {
+                    long snapshot = sums != null ? sums[status.ordinal()] : 0L;
+                    long drift = expected.getOrDefault(status, 0L) - snapshot;
+                    if (drift != 0) {
+                        counter.byStatus[status.ordinal()].add(drift);
+                    }
+                }
+            }
+
+            for (QueueAverage row : operationRequestRepository.calculateAverageWaitTimeByQueue()) {
+                counter(row.getQueueName()).averageWaitTimeSeconds = row.getAverageSeconds();
+            }
+            for (QueueAverage row : operationRequestRepository.calculateAverageProcessingTimeByQueue()) {
+                counter(row.getQueueName()).averageProcessingTimeSeconds = row.getAverageSeconds();
+            }
+
+            log.debug("Contadores de colas reconciliados: {} colas", queueNames.size());
+        } catch (Exception e) {
+            log.error("Error reconciliando contadores de colas", e);
+        }
+    }
+
+    private QueueCounter counter(String queueName) {
+        return counters.computeIfAbsent(queueName, q -> new QueueCounter());
+    }
+
+    private static final class QueueCounter {
+        private final LongAdder[] byStatus = new LongAdder[STATUSES.length];
+        private volatile Double averageWaitTimeSeconds;
+        private volatile Double averageProcessingTimeSeconds;
+
+        private QueueCounter() {
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -8,10 +8,16 @@ import java.util.Map;
 public interface QueueService {
 
     /**
-     * Encola una nueva operación con la prioridad especificada
+     * Encola una nueva operación con la prioridad especificada. Con idempotencyKey,
+     * una solicitud repetida devuelve la operación original sin volver a encolarla
      */
     Long enqueueOperation(OperationType type, ClusterType clusterType, Integer zoneId,
-                          Long userId, Map<String, Object> payload, Priority priority);
+                          Long userId, Map<String, Object> payload, Priority priority, String idempotencyKey);
+
+    /**
+     * Encola un lote de operaciones en una sola transacción y devuelve el resultado de cada una
+     */
+    List<EnqueueResult> enqueueOperations(List<Operation> operations);
 
     /**
      * Obtiene el estado actual de una operación
@@ -28,14 +34,50 @@ public interface QueueService {
      */
     QueueStats getQueueStats(String queueName);
 
+    /**
+     * Obtiene los percentiles del tiempo de espera por tipo de operación
+     */
+    Map<OperationType, LatencySummary> getWaitTimeByOperationType();
+
+    /**
+     * Obtiene los percentiles del tiempo de procesamiento por tipo de operación
+     */
+    Map<OperationType, LatencySummary> getProcessingTimeByOperationType();
+
+    /**
+     * Obtiene los percentiles de la latencia de envío a Kafka por prioridad
+     */
+    Map<Priority, LatencySummary> getKafkaSendTimeByPriority();
+
     /**
      * Cancela una operación pendiente
      */
     boolean cancelOperation(Long operationId);
 
     /**
-     * Obtiene las operaciones de un usuario
+     * Cancela todas las operaciones pendientes de un usuario; devuelve cuántas
+     */
+    int cancelUserOperations(Long userId);
+
+    /**
+     * Cancela todas las operaciones pendientes de un slice; devuelve cuántas
+     */
+    int cancelSliceOperations(String sliceId);
+
+    /**
+     * Obtiene una página de operaciones de un usuario, de la más reciente a la más
+     * antigua. cursor es el nextCursor de la página anterior (null para la primera).
+     */
+    OperationPage getUserOperations(Long userId, List<OperationStatus> statuses, String cursor, Integer limit);
+
+    /**
+     * Obtiene una operación con su payload
+     */
+    OperationDetails getOperationDetails(Long operationId);
+
+    /**
+     * Obtiene el resultado reportado por el worker; null si la operación aún no terminó
      */
-    List<QueueItem> getUserOperations(Long userId, List<OperationStatus> statuses);
+    Map<String, Object> getOperationResult(Long operationId);
 
 }
\ No newline at end of file
@@ -1,22 +1,36 @@
 package com.example.queuemanagermodule.service;
 
 import com.example.queuemanagermodule.model.*;
+import com.example.queuemanagermodule.repository.OperationArchiveRepository;
+import com.example.queuemanagermodule.repository.OperationRequestJdbcRepository;
 import com.example.queuemanagermodule.repository.OperationRequestRepository;
+import com.example.queuemanagermodule.repository.OutboxEventRepository;
 import com.example.queuemanagermodule.repository.QueueMetricsRepository;
+import com.example.queuemanagermodule.util.RoutingKeys;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,179 +39,118 @@ import java.util.stream.Collectors;
 public class QueueServiceImpl implements QueueService {
 
     private final OperationRequestRepository operationRequestRepository;
+    private final OperationRequestJdbcRepository operationRequestJdbcRepository;
+    private final OperationArchiveRepository operationArchiveRepository;
     private final QueueMetricsRepository queueMetricsRepository;
+    private final OutboxEventRepository outboxEventRepository;
     private final KafkaProducerService kafkaProducerService;
+    private final OperationFactory operationFactory;
+    private final PayloadCodec payloadCodec;
+    private final OperationEventPublisher operationEventPublisher;
+    private final QueueCounters queueCounters;
+    private final QueueCatalog queueCatalog;
+    private final IdempotencyKeys idempotencyKeys;
+    private final OperationCoalescer operationCoalescer;
+    private final AdmissionControl admissionControl;
+    private final ActiveOperationIndex activeOperationIndex;
+    private final LatencyHistograms latencyHistograms;
     private final ObjectMapper objectMapper;
 
-    @Value("${queue.retry.max-attempts}")
-    private Integer maxRetryAttempts;
+    @Value("${queue.outbox.enabled:false}")
+    private boolean outboxEnabled;
 
-    @Value("${kafka.topics.LINUX_ZONE1_HIGH}")
-    private String linuxZone1HighTopic;
+    @Value("${queue.batch.ack-timeout-ms:10000}")
+    private long batchAckTimeoutMs;
 
-    @Value("${kafka.topics.LINUX_ZONE1_MEDIUM}")
-    private String linuxZone1MediumTopic;
+    @Value("${queue.listing.default-page-size:50}")
+    private int defaultPageSize;
 
-    @Value("${kafka.topics.LINUX_ZONE1_LOW}")
-    private String linuxZone1LowTopic;
-
-    /**
-     * Determina la prioridad adecuada para una operación basada en varios factores
-     */
-    private Priority determinePriority(OperationType operationType, ClusterType clusterType,
-                                       Long userId, Map<String, Object> payload) {
-
-        // Prioridad base - por defecto es MEDIUM
-        Priority calculatedPriority = Priority.MEDIUM;
-
-        // Optimizado para DEPLOY_SLICE
-        if (operationType == OperationType.DEPLOY_SLICE && payload != null) {
-            try {
-                // Analizar la estructura del payload actual
-                Map<String, Object> topologyInfo = (Map<String, Object>) payload.get("topology_info");
-                if (topologyInfo != null) {
-                    // 1. Cantidad de VMs
-                    List<Map<String, Object>> vms = (List<Map<String, Object>>) topologyInfo.get("vms");
-                    if (vms != null) {
-                        int vmCount = vms.size();
-
-                        // Slices con muchas VMs tienen alta prioridad
-                        if (vmCount > 5) {
-                            calculatedPriority = Priority.HIGH;
-                        } else if (vmCount <= 2) {
-                            calculatedPriority = Priority.LOW;
-                        }
-
-                        // 2. Complejidad de la topología - basada en cantidad de enlaces
-                        List<Map<String, Object>> links = (List<Map<String, Object>>) topologyInfo.get("links");
-                        if (links != null && links.size() > 3) {
-                            // Topología compleja
-                            if (calculatedPriority != Priority.HIGH) {
-                                calculatedPriority = Priority.MEDIUM;
-                            }
-                        }
-
-                        // 3. Complejidad de la red - basada en cantidad de interfaces
-                        List<Map<String, Object>> interfaces = (List<Map<String, Object>>) topologyInfo.get("interfaces");
-                        if (interfaces != null && interfaces.size() > 6) {
-                            // Muchas interfaces indican una topología compleja
-                            if (calculatedPriority != Priority.HIGH) {
-                                calculatedPriority = Priority.MEDIUM;
-                            }
-                        }
-                    }
-                }
-
-                // 4. Flag de urgencia o importancia (si existe)
-                if (payload.containsKey("urgent") && Boolean.TRUE.equals(payload.get("urgent"))) {
-                    calculatedPriority = Priority.HIGH;
-                }
-
-            } catch (Exception e) {
-                log.warn("Error analizando payload para determinar prioridad: {}", e.getMessage());
-                // Mantener la prioridad calculada hasta ahora
-            }
-        } else {
-            // Para otras operaciones
-            switch (operationType) {
-                case STOP_SLICE:
-                    // Detenciones son importantes
-                    calculatedPriority = Priority.HIGH;
-                    break;
-                case RESTART_SLICE:
-                    calculatedPriority = Priority.MEDIUM;
-                    break;
-                case PAUSE_VM:
-                case RESUME_VM:
-                case RESTART_VM:
-                    calculatedPriority = Priority.MEDIUM;
-                    break;
-                case SYNC_IMAGES:
-                case GENERATE_VNC_TOKEN:
-                    calculatedPriority = Priority.LOW;
-                    break;
-                default:
-                    calculatedPriority = Priority.MEDIUM;
-                    break;
-            }
-        }
-
-        // Si la prioridad viene explícitamente indicada, respetarla
-        if (payload != null && payload.containsKey("priority")) {
-            try {
-                String priorityStr = payload.get("priority").toString();
-                Priority explicitPriority = Priority.valueOf(priorityStr);
-                log.info("Usando prioridad explícita: {}", explicitPriority);
-                return explicitPriority;
-            } catch (Exception e) {
-                log.warn("Prioridad especificada inválida: {}", e.getMessage());
-            }
-        }
-
-        log.info("Prioridad calculada para operación {}: {}", operationType, calculatedPriority);
-        return calculatedPriority;
-    }
+    @Value("${queue.listing.max-page-size:200}")
+    private int maxPageSize;
 
     @Override
     @Transactional
     public Long enqueueOperation(OperationType type, ClusterType clusterType, Integer zoneId,
-                                 Long userId, Map<String, Object> payload, Priority requestedPriority) {
+                                 Long userId, Map<String, Object> payload, Priority requestedPriority,
+                                 String idempotencyKey) {
         log.info("Encolando operación: {}, cluster: {}, zona: {}, usuario: {}, prioridad solicitada: {}",
                 type, clusterType, zoneId, userId, requestedPriority);
 
+        // Reintento de una solicitud ya encolada: se devuelve la operación original
+        Long existing = idempotencyKey != null ? idempotencyKeys.find(idempotencyKey, userId) : null;
+        if (existing != null) {
+            log.info("Solicitud repetida con Idempotency-Key {}, operación original: {}", idempotencyKey, existing);
+            return existing;
+        }
+
         // Determinar prioridad adecuada
-        Priority finalPriority = requestedPriority;
+        Priority finalPriority = operationFactory.resolvePriority(type, clusterType, userId, payload, requestedPriority);
 
-        // Si la prioridad es nula, calcularla automáticamente
-        if (finalPriority == null) {
-            finalPriority = determinePriority(type, clusterType, userId, payload);
-            log.info("Prioridad calculada automáticamente: {}", finalPriority);
-        } else {
-            log.info("Usando prioridad solicitada: {}", finalPriority);
+        // Determinar cola y tópico basados en cluster, zona y prioridad
+        QueueRoute route = operationFactory.route(clusterType, zoneId, finalPriority);
+        String queueName = route.getQueueName();
+
+        // Límites por usuario, zona y prioridad antes de tocar la BD
+        admissionControl.admit(userId, clusterType, zoneId, finalPriority);
+
+        if (idempotencyKey != null) {
+            existing = idempotencyKeys.reserve(idempotencyKey, userId);
+            if (existing != null) {
+                log.info("Solicitud repetida con Idempotency-Key {}, operación original: {}", idempotencyKey, existing);
+                return existing;
+            }
         }
 
-        // Determinar nombre de cola basado en cluster, zona y prioridad
-        String queueName = buildQueueName(clusterType, zoneId, finalPriority);
+        String routingKey = RoutingKeys.of(type, userId, payload);
+
+        // Operaciones pendientes del mismo slice/VM que esta repite o deja sin efecto
+        OperationCoalescer.Plan plan = operationCoalescer.plan(type, queueName, finalPriority, routingKey, payload);
+        if (plan.duplicateOf() != null) {
+            Long duplicateId = plan.duplicateOf().getId();
+            if (idempotencyKey != null) {
+                idempotencyKeys.bind(idempotencyKey, userId, duplicateId);
+            }
+            operationCoalescer.recordDuplicate(type);
+            log.info("Operación {} idéntica a la pendiente {}, no se vuelve a encolar", type, duplicateId);
+            return duplicateId;
+        }
 
         try {
-            // Convertir payload a JSON string
-            String payloadJson = objectMapper.writeValueAsString(payload);
-
-            // Crear y guardar la entidad de solicitud
-            OperationRequest operationRequest = OperationRequest.builder()
-                    .operationType(type)
-                    .clusterType(clusterType)
-                    .zoneId(zoneId)
-                    .userId(userId)
-                    .priority(finalPriority)
-                    .payloadJson(payloadJson)
-                    .submittedAt(LocalDateTime.now())
-                    .status(OperationStatus.PENDING)
-                    .retryCount(0)
-                    .maxRetries(maxRetryAttempts)
-                    .queueName(queueName)
-                    .build();
+            // Crear la entidad de solicitud y serializar el payload con el codec configurado
+            OperationRequest operationRequest = operationFactory.buildRequest(
+                    type, clusterType, zoneId, userId, finalPriority, queueName);
+            payloadCodec.writePayload(operationRequest, payload);
+            operationRequest.setRoutingKey(routingKey);
 
             operationRequestRepository.save(operationRequest);
+            operationEventPublisher.publishCreated(operationRequest);
+            if (idempotencyKey != null) {
+                idempotencyKeys.bind(idempotencyKey, userId, operationRequest.getId());
+            }
+            operationCoalescer.supersede(plan.superseded(), operationRequest);
 
             // Crear y enviar el item a Kafka
-            QueueItem queueItem = QueueItem.builder()
-                    .id(operationRequest.getId())
-                    .queueName(queueName)
-                    .operationType(type)
-                    .clusterType(clusterType)
-                    .zoneId(zoneId)
-                    .userId(userId)
-                    .payload(payload)
-                    .priority(finalPriority)
-                    .enqueuedAt(operationRequest.getSubmittedAt())
-                    .status(OperationStatus.PENDING)
-                    .retryCount(0)
-                    .maxRetries(maxRetryAttempts)
-                    .build();
+            QueueItem queueItem = operationFactory.buildQueueItem(operationRequest, payload);
+
+            String topicName = route.getTopic();
+
+            if (outboxEnabled) {
+                // Modo outbox: se confirma junto con la operación y el relay lo publica después
+                outboxEventRepository.save(OutboxEvent.builder()
+                        .operationId(operationRequest.getId())
+                        .topicName(topicName)
+                        .queueItemJson(objectMapper.writeValueAsString(queueItem))
+                        .status(OutboxStatus.PENDING)
+                        .attempts(0)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+
+                log.info("Operación registrada en outbox. ID: {}, Cola: {}, Tópico: {}",
+                        operationRequest.getId(), queueName, topicName);
+
+                return operationRequest.getId();
+            }
 
-            // Determinar el tópico de Kafka basado en la cola
-            String topicName = getKafkaTopicForQueue(queueName);
             boolean sent = kafkaProducerService.sendQueueItem(topicName, queueItem);
 
             if (!sent) {
@@ -220,25 +173,165 @@ public class QueueServiceImpl implements QueueService {
         }
     }
 
+    @Override
+    @Transactional
+    public List<EnqueueResult> enqueueOperations(List<Operation> operations) {
+        log.info("Encolando lote de {} operaciones", operations.size());
+
+        EnqueueResult[] results = new EnqueueResult[operations.size()];
+        List<Integer> indexes = new ArrayList<>(operations.size());
+        List<OperationRequest> requests = new ArrayList<>(operations.size());
+        List<Map<String, Object>> payloads = new ArrayList<>(operations.size());
+        List<String> topics = new ArrayList<>(operations.size());
+        List<AdmissionControl.Ticket> tickets = new ArrayList<>(operations.size());
+
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            try {
+                Priority priority = operationFactory.resolvePriority(operation.getType(), operation.getClusterType(),
+                        operation.getUserId(), operation.getPayload(), operation.getPriority());
+                QueueRoute route = operationFactory.route(operation.getClusterType(), operation.getZoneId(), priority);
+                AdmissionControl.Ticket ticket = new AdmissionControl.Ticket(operation.getUserId(),
+                        operation.getClusterType(), operation.getZoneId(), priority);
+                admissionControl.checkShedding(ticket);
+                OperationRequest request = operationFactory.buildRequest(operation.getType(),
+                        operation.getClusterType(), operation.getZoneId(), operation.getUserId(), priority,
+                        route.getQueueName());
+                payloadCodec.writePayload(request, operation.getPayload());
+                request.setRoutingKey(RoutingKeys.of(operation.getType(), operation.getUserId(),
+                        operation.getPayload()));
+
+                requests.add(request);
+                payloads.add(operation.getPayload());
+                topics.add(route.getTopic());
+                tickets.add(ticket);
+                indexes.add(i);
+            } catch (AdmissionRejectedException e) {
+                log.warn("Operación {} del lote descartada por saturación: {}", i, e.getMessage());
+                results[i] = EnqueueResult.builder()
+                        .index(i)
+                        .success(false)
+                        .message(e.getMessage() + "; reintentar en " + e.getRetryAfterSeconds() + " s")
+                        .build();
+            } catch (Exception e) {
+                log.warn("Operación {} del lote rechazada: {}", i, e.getMessage());
+                results[i] = EnqueueResult.builder()
+                        .index(i)
+                        .success(false)
+                        .message("Error al procesar el payload: " + e.getMessage())
+                        .build();
+            }
+        }
+
+        // El lote se admite o se rechaza entero, antes de escribir nada
+        admissionControl.admitAll(tickets);
+
+        // Un único lote de inserts para todas las operaciones válidas
+        operationRequestJdbcRepository.insertAll(requests);
+        requests.forEach(operationEventPublisher::publishCreated);
+
+        List<QueueItem> queueItems = new ArrayList<>(requests.size());
+        for (int j = 0; j < requests.size(); j++) {
+            queueItems.add(operationFactory.buildQueueItem(requests.get(j), payloads.get(j)));
+        }
+
+        if (outboxEnabled) {
+            List<OutboxEvent> events = new ArrayList<>(requests.size());
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                for (int j = 0; j < requests.size(); j++) {
+                    events.add(OutboxEvent.builder()
+                            .operationId(requests.get(j).getId())
+                            .topicName(topics.get(j))
+                            .queueItemJson(objectMapper.writeValueAsString(queueItems.get(j)))
+                            .status(OutboxStatus.PENDING)
+                            .attempts(0)
+                            .createdAt(now)
+                            .build());
+                }
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Error al serializar el lote para el outbox", e);
+            }
+            operationRequestJdbcRepository.insertOutboxEvents(events);
+
+            for (int j = 0; j < requests.size(); j++) {
+                results[indexes.get(j)] = success(indexes.get(j), requests.get(j), "Operación registrada en outbox");
+            }
+            return Arrays.asList(results);
+        }
+
+        // Disparar todos los envíos antes de esperar cualquier ack
+        List<CompletableFuture<SendResult<String, QueueItem>>> futures = new ArrayList<>(requests.size());
+        for (int j = 0; j < requests.size(); j++) {
+            futures.add(kafkaProducerService.sendQueueItemAsync(topics.get(j), queueItems.get(j)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchAckTimeoutMs);
+        List<Long> failedIds = new ArrayList<>();
+        for (int j = 0; j < requests.size(); j++) {
+            OperationRequest request = requests.get(j);
+            String error = kafkaProducerService.awaitAck(futures.get(j), deadline);
+            if (error == null) {
+                results[indexes.get(j)] = success(indexes.get(j), request, "Operación encolada exitosamente");
+            } else {
+                log.error("Error publicando operación {} del lote en Kafka: {}", request.getId(), error);
+                failedIds.add(request.getId());
+                request.setStatus(OperationStatus.FAILED);
+                operationEventPublisher.publishTransition(request, OperationStatus.PENDING);
+                results[indexes.get(j)] = EnqueueResult.builder()
+                        .index(indexes.get(j))
+                        .operationId(request.getId())
+                        .queueName(request.getQueueName())
+                        .success(false)
+                        .message("Error al publicar en Kafka: " + error)
+                        .build();
+            }
+        }
+
+        if (!failedIds.isEmpty()) {
+            operationRequestRepository.updateStatusForIds(failedIds, OperationStatus.FAILED,
+                    "Error al publicar en Kafka", LocalDateTime.now(), OperationStatus.PENDING);
+        }
+
+        log.info("Lote encolado: {} de {} operaciones publicadas", requests.size() - failedIds.size(), operations.size());
+        return Arrays.asList(results);
+    }
+
+    private EnqueueResult success(int index, OperationRequest request, String message) {
+        return EnqueueResult.builder()
+                .index(index)
+                .operationId(request.getId())
+                .queueName(request.getQueueName())
+                .success(true)
+                .message(message)
+                .build();
+    }
+
     @Override
     public OperationStatus getOperationStatus(Long operationId) {
         log.debug("Consultando estado de operación ID: {}", operationId);
-        return operationRequestRepository.findById(operationId)
-                .map(OperationRequest::getStatus)
+        // Las operaciones activas se resuelven en memoria sin tocar MySQL si esta instancia es la única
+        if (activeOperationIndex.isAuthoritative()) {
+            OperationStatus activeStatus = activeOperationIndex.get(operationId);
+            if (activeStatus != null) {
+                return activeStatus;
+            }
+        }
+
+        // Si ya no está en la tabla caliente, puede haberse archivado
+        return operationRequestRepository.findStatusById(operationId)
+                .or(() -> operationArchiveRepository.findStatusById(operationId))
                 .orElseThrow(() -> new RuntimeException("Operación no encontrada: " + operationId));
     }
 
     @Override
     public List<QueueStats> getAllQueueStats() {
         log.debug("Obteniendo estadísticas de todas las colas");
-        List<String> queueNames = operationRequestRepository.findAll().stream()
-                .map(OperationRequest::getQueueName)
-                .distinct()
-                .collect(Collectors.toList());
-
+        // Colas del catálogo más las que aún tengan operaciones de una configuración anterior
+        Set<String> queueNames = new TreeSet<>(queueCatalog.queueNames());
+        queueNames.addAll(queueCounters.queueNames());
         return queueNames.stream()
                 .map(this::getQueueStats)
-                .filter(stats -> stats != null)
                 .collect(Collectors.toList());
     }
 
@@ -246,26 +339,45 @@ public class QueueServiceImpl implements QueueService {
     public QueueStats getQueueStats(String queueName) {
         log.debug("Obteniendo estadísticas de la cola: {}", queueName);
 
-        Long pendingCount = operationRequestRepository.countByQueueNameAndStatus(queueName, OperationStatus.PENDING);
-        Long inProgressCount = operationRequestRepository.countByQueueNameAndStatus(queueName, OperationStatus.IN_PROGRESS);
-        Long completedCount = operationRequestRepository.countByQueueNameAndStatus(queueName, OperationStatus.COMPLETED);
-        Long failedCount = operationRequestRepository.countByQueueNameAndStatus(queueName, OperationStatus.FAILED);
-
-        Double avgWaitTime = operationRequestRepository.calculateAverageWaitTime(queueName);
-        Double avgProcessingTime = operationRequestRepository.calculateAverageProcessingTime(queueName);
+        // Servido desde los contadores e histogramas en memoria, sin consultas a la BD
+        LatencySummary waitTime = latencyHistograms.waitTime(queueName);
+        LatencySummary processingTime = latencyHistograms.processingTime(queueName);
 
         return QueueStats.builder()
                 .queueName(queueName)
-                .pendingOperations(pendingCount)
-                .inProgressOperations(inProgressCount)
-                .completedOperations(completedCount)
-                .failedOperations(failedCount)
-                .averageWaitTimeSeconds(avgWaitTime)
-                .averageProcessingTimeSeconds(avgProcessingTime)
+                .pendingOperations(queueCounters.get(queueName, OperationStatus.PENDING))
+                .inProgressOperations(queueCounters.get(queueName, OperationStatus.IN_PROGRESS))
+                .completedOperations(queueCounters.get(queueName, OperationStatus.COMPLETED))
+                .failedOperations(queueCounters.get(queueName, OperationStatus.FAILED))
+                .averageWaitTimeSeconds(queueCounters.getAverageWaitTimeSeconds(queueName))
+                .averageProcessingTimeSeconds(queueCounters.getAverageProcessingTimeSeconds(queueName))
+                .waitTimeP50Seconds(waitTime.getP50Seconds())
+                .waitTimeP90Seconds(waitTime.getP90Seconds())
+                .waitTimeP99Seconds(waitTime.getP99Seconds())
+                .maxWaitTimeSeconds(waitTime.getMaxSeconds())
+                .processingTimeP50Seconds(processingTime.getP50Seconds())
+                .processingTimeP90Seconds(processingTime.getP90Seconds())
+                .processingTimeP99Seconds(processingTime.getP99Seconds())
+                .maxProcessingTimeSeconds(processingTime.getMaxSeconds())
                 .lastUpdated(LocalDateTime.now())
                 .build();
     }
 
+    @Override
+    public Map<OperationType, LatencySummary> getWaitTimeByOperationType() {
+        return latencyHistograms.waitTimeByType();
+    }
+
+    @Override
+    public Map<OperationType, LatencySummary> getProcessingTimeByOperationType() {
+        return latencyHistograms.processingTimeByType();
+    }
+
+    @Override
+    public Map<Priority, LatencySummary> getKafkaSendTimeByPriority() {
+        return latencyHistograms.sendTimeByPriority();
+    }
+
     @Override
     @Transactional
     public boolean cancelOperation(Long operationId) {
@@ -275,9 +387,15 @@ public class QueueServiceImpl implements QueueService {
         if (operationOpt.isPresent()) {
             OperationRequest operation = operationOpt.get();
             if (operation.getStatus() == OperationStatus.PENDING) {
+                LocalDateTime now = LocalDateTime.now();
                 operation.setStatus(OperationStatus.CANCELLED);
-                operation.setCompletedAt(LocalDateTime.now());
+                operation.setCompletedAt(now);
                 operationRequestRepository.save(operation);
+                if (outboxEnabled) {
+                    // Que el relay no publique una operación ya cancelada
+                    operationRequestJdbcRepository.cancelOutboxEvents(operationId, now);
+                }
+                operationEventPublisher.publishTransition(operation, OperationStatus.PENDING);
                 log.info("Operación cancelada exitosamente: {}", operationId);
                 return true;
             } else {
@@ -292,8 +410,58 @@ public class QueueServiceImpl implements QueueService {
     }
 
     @Override
-    public List<QueueItem> getUserOperations(Long userId, List<OperationStatus> statuses) {
-        log.debug("Consultando operaciones del usuario ID: {} con estados: {}", userId, statuses);
+    @Transactional
+    public int cancelUserOperations(Long userId) {
+        log.info("Cancelando operaciones pendientes del usuario ID: {}", userId);
+        return cancelPending(operationRequestJdbcRepository.findPendingByUserIdForUpdate(userId));
+    }
+
+    @Override
+    @Transactional
+    public int cancelSliceOperations(String sliceId) {
+        log.info("Cancelando operaciones pendientes del slice ID: {}", sliceId);
+        if (!RoutingKeys.isId(sliceId)) {
+            // "slice-null" agrupa operaciones sin slice, no un slice concreto
+            return 0;
+        }
+        // Misma clave que usa KafkaProducerService para los mensajes del slice
+        return cancelPending(operationRequestJdbcRepository.findPendingByRoutingKeyForUpdate("slice-" + sliceId));
+    }
+
+    /**
+     * Pasa a CANCELLED las operaciones ya bloqueadas con una sola sentencia y notifica cada transición
+     */
+    private int cancelPending(List<OperationSummary> pending) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = pending.stream().map(OperationSummary::getId).toList();
+        int cancelled = operationRequestRepository.updateStatusForIds(
+                ids, OperationStatus.CANCELLED, "Cancelada en bloque", now, OperationStatus.PENDING);
+        if (outboxEnabled) {
+            operationRequestJdbcRepository.cancelOutboxEvents(ids, now);
+        }
+
+        for (OperationSummary summary : pending) {
+            operationEventPublisher.publishTransition(OperationRequest.builder()
+                    .id(summary.getId())
+                    .queueName(summary.getQueueName())
+                    .operationType(summary.getOperationType())
+                    .userId(summary.getUserId())
+                    .status(OperationStatus.CANCELLED)
+                    .submittedAt(summary.getSubmittedAt())
+                    .completedAt(now)
+                    .retryCount(summary.getRetryCount())
+                    .build(), OperationStatus.PENDING);
+        }
+        log.info("Canceladas {} operaciones pendientes", cancelled);
+        return cancelled;
+    }
+
+    @Override
+    public OperationPage getUserOperations(Long userId, List<OperationStatus> statuses, String cursor, Integer limit) {
+        log.debug("Consultando operaciones del usuario ID: {} con estados: {} (cursor: {})", userId, statuses, cursor);
 
         List<OperationStatus> statusesToQuery = statuses;
         if (statusesToQuery == null || statusesToQuery.isEmpty()) {
@@ -301,63 +469,96 @@ public class QueueServiceImpl implements QueueService {
                     OperationStatus.COMPLETED, OperationStatus.FAILED, OperationStatus.CANCELLED);
         }
 
-        List<OperationRequest> operations = operationRequestRepository.findByUserIdAndStatusIn(userId, statusesToQuery);
-        List<QueueItem> results = new ArrayList<>();
-
-        for (OperationRequest op : operations) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        LocalDateTime cursorSubmittedAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
             try {
-                Map<String, Object> payload = op.getPayloadJson() != null ?
-                        objectMapper.readValue(op.getPayloadJson(), Map.class) : null;
-                Map<String, Object> result = op.getResultJson() != null ?
-                        objectMapper.readValue(op.getResultJson(), Map.class) : null;
-
-                QueueItem item = QueueItem.builder()
-                        .id(op.getId())
-                        .queueName(op.getQueueName())
-                        .operationType(op.getOperationType())
-                        .clusterType(op.getClusterType())
-                        .zoneId(op.getZoneId())
-                        .userId(op.getUserId())
-                        .payload(payload)
-                        .priority(op.getPriority())
-                        .enqueuedAt(op.getSubmittedAt())
-                        .processedAt(op.getStartedAt())
-                        .status(op.getStatus())
-                        .errorMessage(op.getErrorMessage())
-                        .retryCount(op.getRetryCount())
-                        .maxRetries(op.getMaxRetries())
-                        .build();
-
-                results.add(item);
-            } catch (Exception e) {
-                log.error("Error procesando operación ID: {}", op.getId(), e);
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                cursorSubmittedAt = LocalDateTime.parse(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
             }
         }
 
-        return results;
+        // Se pide una fila de más a cada tabla para saber si hay otra página
+        List<OperationSummary> operations = new ArrayList<>(operationRequestJdbcRepository.findUserSummaries(
+                userId, statusesToQuery, cursorSubmittedAt, cursorId, pageSize + 1));
+        operations.addAll(operationArchiveRepository.findUserSummaries(
+                userId, statusesToQuery, cursorSubmittedAt, cursorId, pageSize + 1));
+        operations.sort(Comparator.comparing(OperationSummary::getSubmittedAt)
+                .thenComparing(OperationSummary::getId)
+                .reversed());
+
+        boolean hasMore = operations.size() > pageSize;
+        if (hasMore) {
+            operations = new ArrayList<>(operations.subList(0, pageSize));
+        }
+
+        OperationSummary last = hasMore ? operations.get(operations.size() - 1) : null;
+        return OperationPage.builder()
+                .operations(operations)
+                .hasMore(hasMore)
+                .nextCursor(last != null ? encodeCursor(last.getSubmittedAt(), last.getId()) : null)
+                .build();
     }
 
-    /**
-     * Construye el nombre de la cola basado en el cluster, zona y prioridad
-     */
-    private String buildQueueName(ClusterType clusterType, Integer zoneId, Priority priority) {
-        return clusterType.name() + "_ZONE" + zoneId + "_" + priority.name();
+    @Override
+    public OperationDetails getOperationDetails(Long operationId) {
+        log.debug("Consultando detalle de operación ID: {}", operationId);
+
+        OperationRequest op = operationRequestRepository.findById(operationId)
+                .or(() -> operationArchiveRepository.findById(operationId))
+                .orElseThrow(() -> new RuntimeException("Operación no encontrada: " + operationId));
+
+        try {
+            Map<String, Object> payload = payloadCodec.readPayload(op);
+            Map<String, Object> result = payloadCodec.readResult(op);
+
+            return OperationDetails.builder()
+                    .summary(OperationSummary.builder()
+                            .id(op.getId())
+                            .queueName(op.getQueueName())
+                            .operationType(op.getOperationType())
+                            .clusterType(op.getClusterType())
+                            .zoneId(op.getZoneId())
+                            .userId(op.getUserId())
+                            .priority(op.getPriority())
+                            .status(op.getStatus())
+                            .submittedAt(op.getSubmittedAt())
+                            .startedAt(op.getStartedAt())
+                            .completedAt(op.getCompletedAt())
+                            .errorMessage(op.getErrorMessage())
+                            .retryCount(op.getRetryCount())
+                            .maxRetries(op.getMaxRetries())
+                            .supersededBy(op.getSupersededBy())
+                            .build())
+                    .payload(payload)
+                    .result(result)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al leer el payload de la operación " + operationId, e);
+        }
     }
 
-    /**
-     * Retorna el nombre del tópico Kafka para la cola especificada
-     */
-    private String getKafkaTopicForQueue(String queueName) {
-        // Por ahora solo tenemos una zona en LINUX, así que es sencillo
-        if (queueName.equals("LINUX_ZONE1_HIGH")) {
-            return linuxZone1HighTopic;
-        } else if (queueName.equals("LINUX_ZONE1_MEDIUM")) {
-            return linuxZone1MediumTopic;
-        } else if (queueName.equals("LINUX_ZONE1_LOW")) {
-            return linuxZone1LowTopic;
-        } else {
-            // Default para cualquier otra cola no configurada
-            return linuxZone1LowTopic;
+    @Override
+    public Map<String, Object> getOperationResult(Long operationId) {
+        log.debug("Consultando resultado de operación ID: {}", operationId);
+
+        OperationRequest op = operationRequestRepository.findById(operationId)
+                .or(() -> operationArchiveRepository.findById(operationId))
+                .orElseThrow(() -> new RuntimeException("Operación no encontrada: " + operationId));
+
+        try {
+            return payloadCodec.readResult(op);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al leer el resultado de la operación " + operationId, e);
         }
     }
+
+    private String encodeCursor(LocalDateTime submittedAt, Long id) {
+        String raw = submittedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationRequest;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationStatusChangedEvent;
+import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.repository.OperationRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Programa el reintento de las operaciones fallidas que aún tienen intentos. Se
+ * dispara con la transición IN_PROGRESS → PENDING que confirma
+ * {@link OperationStatusIngestService} y publica el item en el tópico de reintento
+ * adecuado, con la hora de vencimiento en una cabecera. La espera crece de forma
+ * exponencial desde queue.retry.delay; {@link RetryTierConsumer} la cumple saltando
+ * entre tópicos de espera fija y al final reenvía el item a su cola.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RetryScheduler {
+
+    public static final String DUE_AT_HEADER = "x-retry-due-at";
+
+    private final OperationRequestRepository operationRequestRepository;
+    private final OperationFactory operationFactory;
+    private final PayloadCodec payloadCodec;
+    private final RetryTopics retryTopics;
+    private final KafkaProducerService kafkaProducerService;
+    private final KafkaTemplate<String, QueueItem> kafkaTemplate;
+
+    @Value("${queue.retry.delay:5000}")
+    private long baseDelayMs;
+
+    @Value("${queue.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${queue.retry.max-delay-ms:300000}")
+    private long maxDelayMs;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OperationStatusChangedEvent event) {
+        if (event.getPreviousStatus() != OperationStatus.IN_PROGRESS
+                || event.getNewStatus() != OperationStatus.PENDING) {
+            return;
+        }
+
+        try {
+            OperationRequest operation = operationRequestRepository.findById(event.getOperationId()).orElse(null);
+            if (operation == null || operation.getStatus() != OperationStatus.PENDING) {
+                log.debug("Reintento omitido, la operación {} ya no está pendiente", event.getOperationId());
+                return;
+            }
+            Map<String, Object> payload = payloadCodec.readPayload(operation);
+            QueueItem queueItem = operationFactory.buildQueueItem(operation, payload);
+            queueItem.setErrorMessage(operation.getErrorMessage());
+
+            long delay = delayFor(operation.getRetryCount());
+            schedule(queueItem, System.currentTimeMillis() + delay).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    // Sin tópico de espera disponible se reintenta ya, antes que dejarla pendiente
+                    log.error("Error publicando el reintento de la operación {}, se reenvía sin espera: {}",
+                            queueItem.getId(), ex.getMessage());
+                    kafkaProducerService.sendQueueItemAsync(targetTopic(queueItem), queueItem);
+                }
+            });
+            log.info("Reintento {}/{} de la operación {} programado en {} ms",
+                    operation.getRetryCount(), operation.getMaxRetries(), operation.getId(), delay);
+        } catch (Exception e) {
+            log.error("Error programando el reintento de la operación {}", event.getOperationId(), e);
+        }
+    }
+
+    /**
+     * Espera antes del intento número retryCount (1 para el primer reintento)
+     */
+    public long delayFor(Integer retryCount) {
+        int exponent = Math.max(0, (retryCount != null ? retryCount : 1) - 1);
+        double delay = baseDelayMs * Math.pow(multiplier, exponent);
+        return (long) Math.min(delay, maxDelayMs);
+    }
+
+    /**
+     * Publica el item en el escalón que corresponde a la espera restante hasta dueAtMs,
+     * o directamente en su cola si ya no queda espera suficiente para un escalón
+     */
+    public CompletableFuture<SendResult<String, QueueItem>> schedule(QueueItem queueItem, long dueAtMs) {
+        int tier = retryTopics.tierFor(dueAtMs - System.currentTimeMillis());
+        if (tier < 0) {
+            return kafkaProducerService.sendQueueItemAsync(targetTopic(queueItem), queueItem);
+        }
+
+        ProducerRecord<String, QueueItem> record = new ProducerRecord<>(
+                retryTopics.topic(queueItem.getPriority(), tier),
+                kafkaProducerService.extractMessageKey(queueItem), queueItem);
+        record.headers().add(DUE_AT_HEADER, Long.toString(dueAtMs).getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+
+    /**
+     * Tópico de trabajo de la operación, con el mismo enrutado que al encolarla
+     */
+    public String targetTopic(QueueItem queueItem) {
+        return operationFactory.route(queueItem.getClusterType(), queueItem.getZoneId(), queueItem.getPriority())
+                .getTopic();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.QueueItem;
+import com.example.queuemanagermodule.repository.OperationRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consume los tópicos de reintento por lotes. Cada tópico tiene su propio contenedor:
+ * si un registro aún no venció se hace nack con la espera restante, lo que pausa ese
+ * consumidor sin bloquear su hilo ni retrasar los demás escalones.
+ * Al vencer, el item salta al siguiente escalón o vuelve a su cola de trabajo.
+ */
+@Service
+@Slf4j
+public class RetryTierConsumer implements SmartLifecycle {
+
+    private final ConcurrentKafkaListenerContainerFactory<String, QueueItem> containerFactory;
+    private final RetryTopics retryTopics;
+    private final RetryScheduler retryScheduler;
+    private final ActiveOperationIndex activeOperationIndex;
+    private final OperationRequestRepository operationRequestRepository;
+    private final KafkaProducerService kafkaProducerService;
+
+    private final List<ConcurrentMessageListenerContainer<String, QueueItem>> containers = new ArrayList<>();
+
+    @Value("${queue.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${queue.retry.concurrency:1}")
+    private int concurrency;
+
+    @Value("${queue.retry.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public RetryTierConsumer(@Qualifier("retryListenerContainerFactory")
+                             ConcurrentKafkaListenerContainerFactory<String, QueueItem> containerFactory,
+                             RetryTopics retryTopics, RetryScheduler retryScheduler,
+                             ActiveOperationIndex activeOperationIndex,
+                             OperationRequestRepository operationRequestRepository,
+                             KafkaProducerService kafkaProducerService) {
+        this.containerFactory = containerFactory;
+        this.retryTopics = retryTopics;
+        this.retryScheduler = retryScheduler;
+        this.activeOperationIndex = activeOperationIndex;
+        this.operationRequestRepository = operationRequestRepository;
+        this.kafkaProducerService = kafkaProducerService;
+    }
+
+    /**
+     * Procesa un poll: reenvía los registros ya vencidos hasta el primero que aún no
+     * vence y espera todos los acks juntos con un único timeout, como el encolado en
+     * lote. Se confirma hasta el primer registro no vencido o con envío fallido; desde
+     * ahí el lote se vuelve a entregar tras la espera, así que los reenvíos ya hechos
+     * después de un fallo se repiten (entrega al menos una vez, como hasta ahora).
+     */
+    void onBatch(List<ConsumerRecord<String, QueueItem>> records, Acknowledgment ack) {
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<?>> sends = new ArrayList<>(records.size());
+        int stopAt = records.size();
+        long waitMs = 0;
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, QueueItem> record = records.get(i);
+            Long tierDelay = retryTopics.delayMs(record.topic());
+            long readyAt = record.timestamp() + (tierDelay != null ? tierDelay : 0L);
+            if (readyAt > now) {
+                stopAt = i;
+                waitMs = readyAt - now;
+                break;
+            }
+            sends.add(forward(record, now));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < sends.size(); i++) {
+            CompletableFuture<?> send = sends.get(i);
+            String error = send != null ? kafkaProducerService.awaitAck(send, deadline) : null;
+            if (error != null) {
+                ConsumerRecord<String, QueueItem> record = records.get(i);
+                log.error("Error reenviando el reintento de la operación {}: {}", record.value().getId(), error);
+                stopAt = i;
+                waitMs = 1000;
+                break;
+            }
+        }
+
+        if (stopAt < records.size()) {
+            ack.nack(stopAt, Duration.ofMillis(waitMs));
+        } else {
+            ack.acknowledge();
+        }
+    }
+
+    /**
+     * Reenvía un registro vencido a su siguiente escalón o a su cola
+     * @return el envío en curso, o null si el registro se descarta
+     */
+    private CompletableFuture<?> forward(ConsumerRecord<String, QueueItem> record, long now) {
+        QueueItem queueItem = record.value();
+        if (queueItem == null || queueItem.getId() == null) {
+            log.warn("Reintento ilegible en {}-{}@{}, se descarta", record.topic(), record.partition(), record.offset());
+            return null;
+        }
+
+        if (!isStillPending(queueItem.getId())) {
+            log.info("Reintento descartado, la operación {} ya no está pendiente", queueItem.getId());
+            return null;
+        }
+
+        try {
+            return retryScheduler.schedule(queueItem, dueAt(record, now));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean isStillPending(Long operationId) {
+        OperationStatus status = activeOperationIndex.isAuthoritative() ? activeOperationIndex.get(operationId) : null;
+        if (status == null) {
+            // El índice puede ir por detrás de otra instancia: se confirma en BD por clave primaria
+            status = operationRequestRepository.findStatusById(operationId).orElse(null);
+        }
+        return status == OperationStatus.PENDING;
+    }
+
+    private static long dueAt(ConsumerRecord<String, QueueItem> record, long now) {
+        Header header = record.headers().lastHeader(RetryScheduler.DUE_AT_HEADER);
+        if (header == null) {
+            return now;
+        }
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return now;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || !containers.isEmpty()) {
+            return;
+        }
+        for (String topic : retryTopics.topics()) {
+            ConcurrentMessageListenerContainer<String, QueueItem> container = containerFactory.createContainer(topic);
+            container.setBeanName("retry-" + topic);
+            container.setConcurrency(concurrency);
+            container.getContainerProperties().setMessageListener(
+                    (BatchAcknowledgingMessageListener<String, QueueItem>) this::onBatch);
+            container.start();
+            containers.add(container);
+        }
+        log.info("Consumidores de reintento iniciados para {} tópicos", containers.size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !containers.isEmpty();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.Priority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tópicos de reintento diferido: uno por prioridad y escalón de espera
+ * (queue.retry.tiers, por ejemplo 5s,30s,5m → queue-retry-high-5s, ...). Todos los
+ * mensajes de un tópico esperan lo mismo, así que el más antiguo siempre es el
+ * próximo en vencer y basta con esperar a la cabeza de cada partición.
+ */
+@Component
+public class RetryTopics {
+
+    private final long[] tierDelaysMs;
+    private final Map<Priority, String[]> topicsByPriority = new EnumMap<>(Priority.class);
+    private final Map<String, Long> delayByTopic = new HashMap<>();
+
+    public RetryTopics(@Value("${queue.retry.tiers:5s,30s,5m}") String tiers,
+                       @Value("${kafka.topics.retry-prefix:queue-retry}") String prefix) {
+        String[] labels = Arrays.stream(tiers.split(","))
+                .map(String::trim)
+                .filter(label -> !label.isEmpty())
+                .toArray(String[]::new);
+        if (labels.length == 0) {
+            throw new IllegalArgumentException("queue.retry.tiers no define ningún escalón");
+        }
+
+        // Se ordenan de menor a mayor espera para elegir escalón por búsqueda lineal
+        Arrays.sort(labels, (a, b) -> Long.compare(parse(a), parse(b)));
+        this.tierDelaysMs = Arrays.stream(labels).mapToLong(RetryTopics::parse).toArray();
+
+        for (Priority priority : Priority.values()) {
+            String[] topics = new String[labels.length];
+            for (int tier = 0; tier < labels.length; tier++) {
+                topics[tier] = prefix + "-" + priority.name().toLowerCase(Locale.ROOT) + "-" + labels[tier];
+                delayByTopic.put(topics[tier], tierDelaysMs[tier]);
+            }
+            topicsByPriority.put(priority, topics);
+        }
+    }
+
+    public List<String> topics() {
+        List<String> topics = new ArrayList<>(delayByTopic.size());
+        topicsByPriority.values().forEach(byTier -> topics.addAll(Arrays.asList(byTier)));
+        return Collections.unmodifiableList(topics);
+    }
+
+    public String topic(Priority priority, int tier) {
+        return topicsByPriority.get(priority != null ? priority : Priority.LOW)[tier];
+    }
+
+    /**
+     * Espera fija del tópico, o null si no es un tópico de reintento
+     */
+    public Long delayMs(String topic) {
+        return delayByTopic.get(topic);
+    }
+
+    /**
+     * Escalón más largo que no supera la espera restante, o -1 si la espera restante
+     * es menor que el escalón más corto (el mensaje se reenvía ya a su cola)
+     */
+    public int tierFor(long remainingMs) {
+        int tier = -1;
+        for (int i = 0; i < tierDelaysMs.length && tierDelaysMs[i] <= remainingMs; i++) {
+            tier = i;
+        }
+        return tier;
+    }
+
+    private static long parse(String label) {
+        return DurationStyle.detectAndParse(label).toMillis();
+    }
+}
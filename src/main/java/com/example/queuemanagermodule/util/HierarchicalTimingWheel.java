@@ -0,0 +1,232 @@
+package com.example.queuemanagermodule.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Rueda de temporización jerárquica para plazos identificados por un long. El
+ * nivel 0 tiene ranuras de tickMs; cada nivel siguiente cubre la vuelta completa
+ * del anterior en cada ranura. Programar y cancelar son O(1) y avanzar el reloj
+ * solo toca las ranuras vencidas; al llegar a una ranura de un nivel superior sus
+ * entradas bajan a niveles más finos. Los plazos se redondean hacia arriba al
+ * tick, así que una entrada vence como mucho un tick tarde y nunca antes.
+ * No es thread-safe.
+ */
+public class HierarchicalTimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTickMs;
+    private final long[] levelTime;
+    private final Entry[][] buckets;
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    // Entradas cuyo plazo ya había pasado al programarlas; vencen en el próximo avance
+    private Entry due;
+
+    private long currentTime;
+
+    /**
+     * @param maxDelayMs plazo máximo habitual; los más lejanos se aparcan en la última
+     *                   ranura del nivel superior y se recolocan al alcanzarla
+     */
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long maxDelayMs, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs debe ser positivo y wheelSize al menos 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+
+        int levels = 1;
+        long span = tickMs * wheelSize;
+        while (span < maxDelayMs && span <= Long.MAX_VALUE / wheelSize) {
+            span *= wheelSize;
+            levels++;
+        }
+
+        this.levelTickMs = new long[levels];
+        this.levelTime = new long[levels];
+        this.buckets = new Entry[levels][wheelSize];
+        long tick = tickMs;
+        for (int level = 0; level < levels; level++) {
+            levelTickMs[level] = tick;
+            tick *= wheelSize;
+        }
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+        updateLevelTimes();
+    }
+
+    /**
+     * Programa (o reprograma) el plazo de id
+     */
+    public void schedule(long id, long deadlineMs) {
+        cancel(id);
+        Entry entry = new Entry(id, roundUp(deadlineMs));
+        entries.put(id, entry);
+        place(entry);
+    }
+
+    /**
+     * Cancela el plazo de id; devuelve false si no estaba programado
+     */
+    public boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Avanza el reloj hasta nowMs y entrega los IDs vencidos. Devuelve cuántos venció.
+     */
+    public int advance(long nowMs, LongConsumer onExpired) {
+        int expired = drain(due, onExpired);
+        due = null;
+
+        while (currentTime + tickMs <= nowMs) {
+            if (entries.isEmpty()) {
+                // Nada programado: se salta directamente al tick actual
+                currentTime = nowMs - Math.floorMod(nowMs, tickMs);
+                updateLevelTimes();
+                break;
+            }
+            currentTime += tickMs;
+            updateLevelTimes();
+
+            // De arriba abajo, para que lo que baja de nivel se recoloque antes de vencer
+            for (int level = levelTickMs.length - 1; level > 0; level--) {
+                if (currentTime % levelTickMs[level] == 0) {
+                    int index = bucketIndex(level, currentTime);
+                    Entry head = buckets[level][index];
+                    buckets[level][index] = null;
+                    while (head != null) {
+                        Entry next = head.next;
+                        head.prev = null;
+                        head.next = null;
+                        place(head);
+                        head = next;
+                    }
+                }
+            }
+
+            int index = bucketIndex(0, currentTime);
+            Entry head = buckets[0][index];
+            buckets[0][index] = null;
+            expired += drain(head, onExpired);
+            expired += drain(due, onExpired);
+            due = null;
+        }
+        return expired;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void place(Entry entry) {
+        if (entry.deadline <= currentTime) {
+            linkDue(entry);
+            return;
+        }
+        int top = levelTickMs.length - 1;
+        for (int level = 0; level <= top; level++) {
+            if (entry.deadline < levelTime[level] + levelTickMs[level] * wheelSize) {
+                link(entry, level, bucketIndex(level, entry.deadline));
+                return;
+            }
+        }
+        // Más allá del alcance de la rueda: última ranura del nivel superior
+        long parked = levelTime[top] + levelTickMs[top] * (wheelSize - 1);
+        link(entry, top, bucketIndex(top, parked));
+    }
+
+    private void linkDue(Entry entry) {
+        entry.level = -1;
+        entry.next = due;
+        if (due != null) {
+            due.prev = entry;
+        }
+        due = entry;
+    }
+
+    private void link(Entry entry, int level, int index) {
+        entry.level = level;
+        entry.index = index;
+        Entry head = buckets[level][index];
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        buckets[level][index] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (entry.level >= 0) {
+            buckets[entry.level][entry.index] = entry.next;
+        } else {
+            due = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private int drain(Entry head, LongConsumer onExpired) {
+        int count = 0;
+        while (head != null) {
+            Entry next = head.next;
+            head.prev = null;
+            head.next = null;
+            if (head.deadline > currentTime) {
+                // Aparcada en la última ranura por estar fuera de alcance: aún no vence
+                place(head);
+            } else {
+                entries.remove(head.id);
+                onExpired.accept(head.id);
+                count++;
+            }
+            head = next;
+        }
+        return count;
+    }
+
+    private void updateLevelTimes() {
+        for (int level = 0; level < levelTickMs.length; level++) {
+            levelTime[level] = currentTime - Math.floorMod(currentTime, levelTickMs[level]);
+        }
+    }
+
+    private int bucketIndex(int level, long time) {
+        return (int) Math.floorMod(Math.floorDiv(time, levelTickMs[level]), (long) wheelSize);
+    }
+
+    private long roundUp(long deadlineMs) {
+        long remainder = Math.floorMod(deadlineMs, tickMs);
+        return remainder == 0 ? deadlineMs : deadlineMs - remainder + tickMs;
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadline;
+        private Entry prev;
+        private Entry next;
+        private int level = -1;
+        private int index;
+
+        private Entry(long id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
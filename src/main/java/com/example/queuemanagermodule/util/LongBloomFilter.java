@@ -0,0 +1,90 @@
+package com.example.queuemanagermodule.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Filtro de Bloom de claves long sobre un long[] de bits. Las posiciones salen de
+ * doble hashing sobre el mix64 de la clave (finalizador de SplitMix64):
+ * h1 = 32 bits bajos, h2 = 32 bits altos, bit_i = (h1 + i * h2) mod numBits, con
+ * aritmética entera sin signo de 64 bits. Así un cliente en otro lenguaje puede
+ * reproducir las comprobaciones a partir de {@link #toByteArray()}.
+ * No es thread-safe.
+ */
+public class LongBloomFilter {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * Dimensiona el filtro para expectedInsertions claves con la tasa de falsos
+     * positivos indicada
+     */
+    public LongBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new long[words];
+        this.numBits = (long) words * 64;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+    }
+
+    public void add(long key) {
+        long hash = mix64(key);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * false si la clave seguro no está; true si probablemente está
+     */
+    public boolean mightContain(long key) {
+        long hash = mix64(key);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    public long numBits() {
+        return numBits;
+    }
+
+    /**
+     * Serialización big-endian: versión (1 byte), numHashes (int), palabras (int) y
+     * los bits como long[]
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 4 + bits.length * 8);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(numHashes);
+        buffer.putInt(bits.length);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    static long mix64(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.queuemanagermodule.util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long → byte de direccionamiento abierto (sondeo lineal) sobre arrays
+ * primitivos: sin boxing ni un objeto por entrada. Las claves deben ser positivas;
+ * 0 marca una celda libre. Al borrar se desplazan las entradas siguientes del
+ * cluster, así que no hay lápidas y el sondeo no se degrada con el uso.
+ * No es thread-safe.
+ */
+public class LongByteHashMap {
+
+    public static final byte MISSING = -1;
+
+    private static final long FREE = 0L;
+    private static final float MAX_LOAD = 0.6f;
+
+    private long[] keys;
+    private byte[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongByteHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) * 2 - 1);
+        allocate(capacity);
+    }
+
+    /**
+     * Valor asociado a la clave o {@link #MISSING}. Tolera lecturas concurrentes con
+     * una escritura (el llamador debe validar el resultado): nunca recorre más celdas
+     * que la capacidad ni falla si los arrays cambian de tamaño a mitad de la lectura.
+     */
+    public byte get(long key) {
+        long[] k = keys;
+        byte[] v = values;
+        if (key <= 0 || k.length != v.length) {
+            return MISSING;
+        }
+        int m = k.length - 1;
+        int slot = hash(key) & m;
+        for (int probes = 0; probes <= m; probes++) {
+            long current = k[slot];
+            if (current == key) {
+                return v[slot];
+            }
+            if (current == FREE) {
+                return MISSING;
+            }
+            slot = (slot + 1) & m;
+        }
+        return MISSING;
+    }
+
+    public void put(long key, byte value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("La clave debe ser positiva: " + key);
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Elimina la clave si existe y devuelve su valor, o {@link #MISSING}
+     */
+    public byte remove(long key) {
+        if (key <= 0) {
+            return MISSING;
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte previous = values[slot];
+        size--;
+
+        // Desplaza hacia atrás las entradas del cluster que quedarían inalcanzables
+        int free = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != FREE) {
+            int ideal = hash(keys[next]) & mask;
+            boolean movable = free <= next ? (ideal <= free || ideal > next) : (ideal <= free && ideal > next);
+            if (movable) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[free] = FREE;
+        values[free] = 0;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, (byte) 0);
+        size = 0;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        // Se asignan antes los valores: un lector concurrente ve longitudes distintas y descarta la lectura
+        byte[] newValues = new byte[capacity];
+        long[] newKeys = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * MAX_LOAD);
+        values = newValues;
+        keys = newKeys;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.queuemanagermodule.util;
+
+import com.example.queuemanagermodule.model.ClusterType;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.model.QueueItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Formato binario de QueueItem para Kafka. Versión 2, big-endian:
+ * <pre>
+ *   byte    versión (2)
+ *   int     máscara de campos presentes (bit i = campo i de la lista)
+ *   campos presentes, en este orden:
+ *     0 id long             5 userId long          10 status byte
+ *     1 queueName str       6 payload bytes        11 errorMessage str
+ *     2 operationType byte  7 priority byte        12 retryCount int
+ *     3 clusterType byte    8 enqueuedAt ts        13 maxRetries int
+ *     4 zoneId int          9 processedAt ts       14 routingKey str
+ *                                                  15 payloadRef str (v2)
+ *                                                  16 payloadSize long (v2)
+ *   str   = int longitud + UTF-8
+ *   bytes = int longitud + payload en Smile (JSON binario)
+ *   ts    = long segundos epoch + int nanos, de la LocalDateTime tomada como UTC
+ *   enums = ordinal, por lo que los enums solo admiten valores nuevos al final
+ * </pre>
+ * La versión también viaja en la cabecera {@link #VERSION_HEADER}; su presencia
+ * distingue los mensajes binarios de los JSON. Cualquier cambio de formato
+ * incrementa la versión; los campos nuevos van al final de la máscara, así que
+ * se siguen leyendo los mensajes de versiones anteriores.
+ */
+public final class QueueItemWireCodec {
+
+    public static final String VERSION_HEADER = "x-queue-item-schema";
+    public static final byte VERSION = 2;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+    private static final SmileMapper SMILE_MAPPER = new SmileMapper();
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+    private static final ClusterType[] CLUSTER_TYPES = ClusterType.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final OperationStatus[] STATUSES = OperationStatus.values();
+
+    private QueueItemWireCodec() {
+    }
+
+    public static byte[] encode(QueueItem item) {
+        try {
+            byte[] payload = item.getPayload() != null ? SMILE_MAPPER.writeValueAsBytes(item.getPayload()) : null;
+            int mask = bit(item.getId(), 0) | bit(item.getQueueName(), 1) | bit(item.getOperationType(), 2)
+                    | bit(item.getClusterType(), 3) | bit(item.getZoneId(), 4) | bit(item.getUserId(), 5)
+                    | bit(payload, 6) | bit(item.getPriority(), 7) | bit(item.getEnqueuedAt(), 8)
+                    | bit(item.getProcessedAt(), 9) | bit(item.getStatus(), 10) | bit(item.getErrorMessage(), 11)
+                    | bit(item.getRetryCount(), 12) | bit(item.getMaxRetries(), 13) | bit(item.getRoutingKey(), 14)
+                    | bit(item.getPayloadRef(), 15) | bit(item.getPayloadSize(), 16);
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + (payload != null ? payload.length : 0));
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(VERSION);
+            out.writeInt(mask);
+            if (item.getId() != null) {
+                out.writeLong(item.getId());
+            }
+            if (item.getQueueName() != null) {
+                writeString(out, item.getQueueName());
+            }
+            if (item.getOperationType() != null) {
+                out.writeByte(item.getOperationType().ordinal());
+            }
+            if (item.getClusterType() != null) {
+                out.writeByte(item.getClusterType().ordinal());
+            }
+            if (item.getZoneId() != null) {
+                out.writeInt(item.getZoneId());
+            }
+            if (item.getUserId() != null) {
+                out.writeLong(item.getUserId());
+            }
+            if (payload != null) {
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            if (item.getPriority() != null) {
+                out.writeByte(item.getPriority().ordinal());
+            }
+            if (item.getEnqueuedAt() != null) {
+                writeTimestamp(out, item.getEnqueuedAt());
+            }
+            if (item.getProcessedAt() != null) {
+                writeTimestamp(out, item.getProcessedAt());
+            }
+            if (item.getStatus() != null) {
+                out.writeByte(item.getStatus().ordinal());
+            }
+            if (item.getErrorMessage() != null) {
+                writeString(out, item.getErrorMessage());
+            }
+            if (item.getRetryCount() != null) {
+                out.writeInt(item.getRetryCount());
+            }
+            if (item.getMaxRetries() != null) {
+                out.writeInt(item.getMaxRetries());
+            }
+            if (item.getRoutingKey() != null) {
+                writeString(out, item.getRoutingKey());
+            }
+            if (item.getPayloadRef() != null) {
+                writeString(out, item.getPayloadRef());
+            }
+            if (item.getPayloadSize() != null) {
+                out.writeLong(item.getPayloadSize());
+            }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error codificando QueueItem " + item.getId(), e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si la versión no es conocida o los datos están truncados
+     */
+    public static QueueItem decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            byte version = in.get();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Versión de QueueItem no soportada: " + version);
+            }
+            int mask = in.getInt();
+            QueueItem item = new QueueItem();
+            if (has(mask, 0)) {
+                item.setId(in.getLong());
+            }
+            if (has(mask, 1)) {
+                item.setQueueName(readString(in));
+            }
+            if (has(mask, 2)) {
+                item.setOperationType(OPERATION_TYPES[in.get()]);
+            }
+            if (has(mask, 3)) {
+                item.setClusterType(CLUSTER_TYPES[in.get()]);
+            }
+            if (has(mask, 4)) {
+                item.setZoneId(in.getInt());
+            }
+            if (has(mask, 5)) {
+                item.setUserId(in.getLong());
+            }
+            if (has(mask, 6)) {
+                int length = in.getInt();
+                item.setPayload(SMILE_MAPPER.readValue(data, in.position(), length, MAP_TYPE));
+                in.position(in.position() + length);
+            }
+            if (has(mask, 7)) {
+                item.setPriority(PRIORITIES[in.get()]);
+            }
+            if (has(mask, 8)) {
+                item.setEnqueuedAt(readTimestamp(in));
+            }
+            if (has(mask, 9)) {
+                item.setProcessedAt(readTimestamp(in));
+            }
+            if (has(mask, 10)) {
+                item.setStatus(STATUSES[in.get()]);
+            }
+            if (has(mask, 11)) {
+                item.setErrorMessage(readString(in));
+            }
+            if (has(mask, 12)) {
+                item.setRetryCount(in.getInt());
+            }
+            if (has(mask, 13)) {
+                item.setMaxRetries(in.getInt());
+            }
+            if (has(mask, 14)) {
+                item.setRoutingKey(readString(in));
+            }
+            if (has(mask, 15)) {
+                item.setPayloadRef(readString(in));
+            }
+            if (has(mask, 16)) {
+                item.setPayloadSize(in.getLong());
+            }
+            return item;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e;
+            }
+            throw new IllegalArgumentException("QueueItem binario inválido: " + e.getMessage(), e);
+        }
+    }
+
+    private static int bit(Object value, int field) {
+        return value != null ? 1 << field : 0;
+    }
+
+    private static boolean has(int mask, int field) {
+        return (mask & (1 << field)) != 0;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readTimestamp(ByteBuffer in) {
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+}
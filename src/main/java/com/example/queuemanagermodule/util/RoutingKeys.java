@@ -0,0 +1,112 @@
+package com.example.queuemanagermodule.util;
+
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.QueueItem;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+
+/**
+ * Clave de enrutado de las operaciones: "slice-&lt;id&gt;" cuando el payload identifica
+ * el slice, para que todas las operaciones de un slice vayan a la misma partición
+ * en orden, o "user-&lt;id&gt;" si no. Se calcula una vez al encolar, se guarda en
+ * operation_requests.routing_key y viaja en {@link QueueItem#getRoutingKey()}
+ * como clave del mensaje Kafka. Un slice_id presente pero nulo produce
+ * "slice-null", como siempre: se conserva solo para no mover particiones, pero
+ * esa clave no identifica ningún slice (ver {@link #isSliceKey(String)}).
+ */
+public final class RoutingKeys {
+
+    private RoutingKeys() {
+    }
+
+    /**
+     * Clave del item: la ya calculada si la trae, si no la del payload
+     */
+    public static String of(QueueItem queueItem) {
+        String routingKey = queueItem.getRoutingKey();
+        if (routingKey != null && !routingKey.isEmpty()) {
+            return routingKey;
+        }
+        return of(queueItem.getOperationType(), queueItem.getUserId(), queueItem.getPayload());
+    }
+
+    public static String of(OperationType type, Long userId, Map<String, Object> payload) {
+        String sliceId = sliceId(type, payload);
+        return sliceId != null && !sliceId.isEmpty() ? "slice-" + sliceId : "user-" + userId;
+    }
+
+    /**
+     * true si la clave identifica un slice concreto: "slice-&lt;id&gt;" con un id real,
+     * no "slice-null"
+     */
+    public static boolean isSliceKey(String routingKey) {
+        return routingKey != null && routingKey.startsWith("slice-") && isId(routingKey.substring("slice-".length()));
+    }
+
+    /**
+     * true si el id leído del payload es un valor real y no falta, está vacío o es "null"
+     */
+    public static boolean isId(String id) {
+        return id != null && !id.isEmpty() && !"null".equals(id);
+    }
+
+    /**
+     * ID de slice del payload según el tipo de operación, o null
+     */
+    public static String sliceId(OperationType type, Map<String, Object> payload) {
+        if (payload == null || type == null) {
+            return null;
+        }
+        switch (type) {
+            case DEPLOY_SLICE:
+                // slice_info.id es la fuente principal, network_config.slice_id el respaldo
+                String sliceId = nested(payload, "slice_info", "id");
+                return sliceId != null ? sliceId : nested(payload, "network_config", "slice_id");
+            case STOP_SLICE:
+            case RESTART_SLICE:
+                return value(payload, "slice_id");
+            case PAUSE_VM:
+            case RESUME_VM:
+            case RESTART_VM:
+                String vmSliceId = value(payload, "slice_id");
+                return vmSliceId != null ? vmSliceId : nested(payload, "vm_info", "slice_id");
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * ID de la VM del payload en las operaciones de VM, o null
+     */
+    public static String vmId(OperationType type, Map<String, Object> payload) {
+        if (payload == null || (type != OperationType.PAUSE_VM && type != OperationType.RESUME_VM
+                && type != OperationType.RESTART_VM)) {
+            return null;
+        }
+        String vmId = value(payload, "vm_id");
+        return vmId != null ? vmId : nested(payload, "vm_info", "id");
+    }
+
+    /**
+     * Partición de una clave ya serializada; mismo hash que el particionador por defecto de Kafka
+     */
+    public static int partition(byte[] keyBytes, int numPartitions) {
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+    }
+
+    private static String value(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value != null || map.containsKey(key) ? String.valueOf(value) : null;
+    }
+
+    private static String nested(Map<String, Object> payload, String parent, String key) {
+        Object child = payload.get(parent);
+        if (child instanceof Map<?, ?> map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> childMap = (Map<String, Object>) map;
+            return value(childMap, key);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.queuemanagermodule.util;
+
+/**
+ * Token bucket de capacidad burst que se rellena a ratePerSecond tokens por
+ * segundo. El relleno se calcula al consumir a partir del tiempo transcurrido,
+ * sin hilos ni temporizadores. Los instantes son de System.nanoTime().
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastUsedNanos;
+
+    public TokenBucket(double ratePerSecond, double burst, long nowNanos) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Tasa y ráfaga deben ser positivas: " + ratePerSecond + "/" + burst);
+        }
+        this.capacity = burst;
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = burst;
+        this.lastRefillNanos = nowNanos;
+        this.lastUsedNanos = nowNanos;
+    }
+
+    /**
+     * Consume un token si hay
+     * @return 0 si se consumió, o los nanosegundos hasta que haya uno
+     */
+    public long tryAcquire(long nowNanos) {
+        return tryAcquire(nowNanos, 1);
+    }
+
+    /**
+     * Consume permits tokens a la vez o ninguno
+     * @return 0 si se consumieron, o los nanosegundos hasta que haya permits
+     * @throws IllegalArgumentException si permits supera la capacidad: nunca habría suficientes
+     */
+    public synchronized long tryAcquire(long nowNanos, int permits) {
+        if (permits > capacity) {
+            throw new IllegalArgumentException("Se piden " + permits + " tokens y la ráfaga máxima es " + (long) capacity);
+        }
+        refill(nowNanos);
+        lastUsedNanos = nowNanos;
+        if (tokens >= permits) {
+            tokens -= permits;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((permits - tokens) / tokensPerNano));
+    }
+
+    /**
+     * Devuelve tokens consumidos con {@link #tryAcquire(long, int)} que al final no se usaron
+     */
+    public synchronized void refund(int permits) {
+        tokens = Math.min(capacity, tokens + permits);
+    }
+
+    /**
+     * Lleno y sin uso desde hace idleNanos: descartarlo no cambia ninguna decisión
+     */
+    public synchronized boolean isIdle(long nowNanos, long idleNanos) {
+        refill(nowNanos);
+        return tokens >= capacity && nowNanos - lastUsedNanos >= idleNanos;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
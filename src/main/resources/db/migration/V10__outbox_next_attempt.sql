@@ -0,0 +1,4 @@
+-- OutboxRelayService: un evento reclamado o que falló no vuelve a intentarse antes
+-- de next_attempt_at (lease del relay que lo reclamó o espera exponencial por intentos)
+ALTER TABLE operation_outbox
+    ADD COLUMN next_attempt_at DATETIME(6) NULL;
@@ -0,0 +1,28 @@
+-- terminal_at pasa a asignarse en todos los estados terminales (también CANCELLED y
+-- TIMEOUT) y el archivado selecciona por esta columna: completed_at puede quedar a
+-- NULL en filas terminales (caminos que no lo escriben, filas antiguas) y esas filas
+-- no se archivaban nunca. El rollup de métricas sigue filtrando por COMPLETED/FAILED.
+-- Mismos privilegios que V9 para crear triggers.
+
+-- Los triggers se quitan antes del relleno: el de UPDATE conserva el terminal_at
+-- anterior (NULL) en las filas que ya eran terminales
+DROP TRIGGER IF EXISTS trg_opreq_terminal_at_insert;
+DROP TRIGGER IF EXISTS trg_opreq_terminal_at_update;
+
+-- Filas terminales sin marca: la mejor aproximación disponible a cuándo terminaron
+UPDATE operation_requests
+SET terminal_at = COALESCE(completed_at, started_at, submitted_at)
+WHERE status IN ('COMPLETED', 'FAILED', 'CANCELLED', 'TIMEOUT') AND terminal_at IS NULL;
+
+CREATE TRIGGER trg_opreq_terminal_at_insert
+    BEFORE INSERT ON operation_requests
+    FOR EACH ROW
+    SET NEW.terminal_at = IF(NEW.status IN ('COMPLETED', 'FAILED', 'CANCELLED', 'TIMEOUT'), UTC_TIMESTAMP(6), NULL);
+
+CREATE TRIGGER trg_opreq_terminal_at_update
+    BEFORE UPDATE ON operation_requests
+    FOR EACH ROW
+    SET NEW.terminal_at = IF(NEW.status IN ('COMPLETED', 'FAILED', 'CANCELLED', 'TIMEOUT'),
+                             IF(OLD.status IN ('COMPLETED', 'FAILED', 'CANCELLED', 'TIMEOUT'),
+                                OLD.terminal_at, UTC_TIMESTAMP(6)),
+                             NULL);
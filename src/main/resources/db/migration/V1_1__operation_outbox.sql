@@ -0,0 +1,21 @@
+-- Outbox transaccional (queue.outbox.enabled). Las bases que ya lo tenían creado por
+-- ddl-auto=update lo conservan; V2 normaliza la columna status.
+--
+-- Bases que ya aplicaron una versión anterior de V1 que incluía esta tabla y las
+-- columnas de V1_2: el checksum de V1 ha cambiado y V1_1/V1_2 quedan por debajo de
+-- migraciones ya aplicadas, así que Flyway rechaza arrancar. Una sola vez:
+--   1. flyway repair (o Flyway.repair()) para aceptar el checksum nuevo de V1;
+--   2. arrancar con spring.flyway.out-of-order=true para aplicar V1_1 y V1_2, que
+--      ahí no cambian nada, y después quitar la propiedad.
+CREATE TABLE IF NOT EXISTS operation_outbox (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    operation_id    BIGINT       NOT NULL,
+    topic_name      VARCHAR(255) NOT NULL,
+    queue_item_json JSON         NOT NULL,
+    status          VARCHAR(16)  NOT NULL,
+    attempts        INT          NOT NULL,
+    error_message   TEXT         NULL,
+    created_at      DATETIME(6)  NOT NULL,
+    published_at    DATETIME(6)  NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
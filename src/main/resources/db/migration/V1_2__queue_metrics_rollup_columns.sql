@@ -0,0 +1,92 @@
+-- Columnas de percentiles y del rollup incremental de queue_metrics. Las bases que
+-- pasaron por ddl-auto=update con estas columnas ya las tienen: MySQL no admite
+-- ADD COLUMN IF NOT EXISTS, así que cada una se añade solo si falta en
+-- information_schema.
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN wait_time_p50seconds DOUBLE NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'wait_time_p50seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN wait_time_p90seconds DOUBLE NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'wait_time_p90seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN wait_time_p99seconds DOUBLE NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'wait_time_p99seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN processing_time_p50seconds DOUBLE NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'processing_time_p50seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN processing_time_p90seconds DOUBLE NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'processing_time_p90seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN processing_time_p99seconds DOUBLE NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'processing_time_p99seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN terminal_wait_samples BIGINT NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'terminal_wait_samples');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN terminal_wait_sum_seconds BIGINT NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'terminal_wait_sum_seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN terminal_processing_samples BIGINT NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'terminal_processing_samples');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN terminal_processing_sum_seconds BIGINT NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'terminal_processing_sum_seconds');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE queue_metrics ADD COLUMN rollup_watermark DATETIME(6) NULL', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'queue_metrics' AND column_name = 'rollup_watermark');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
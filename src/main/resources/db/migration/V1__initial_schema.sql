@@ -0,0 +1,40 @@
+-- Esquema inicial, idéntico al que generaba ddl-auto=update antes de pasar a Flyway.
+-- Las bases existentes se marcan en esta versión (spring.flyway.baseline-on-migrate)
+-- sin ejecutarla, así que todo lo añadido después va en migraciones posteriores.
+
+CREATE TABLE IF NOT EXISTS operation_requests (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    operation_type ENUM ('DEPLOY_SLICE','STOP_SLICE','RESTART_SLICE','PAUSE_VM','RESUME_VM',
+                         'RESTART_VM','GENERATE_VNC_TOKEN','SYNC_IMAGES') NOT NULL,
+    cluster_type   ENUM ('LINUX','OPENSTACK') NOT NULL,
+    zone_id        INT          NOT NULL,
+    user_id        BIGINT       NOT NULL,
+    priority       ENUM ('HIGH','MEDIUM','LOW') NOT NULL,
+    submitted_at   DATETIME(6)  NOT NULL,
+    started_at     DATETIME(6)  NULL,
+    completed_at   DATETIME(6)  NULL,
+    status         ENUM ('PENDING','IN_PROGRESS','COMPLETED','FAILED','TIMEOUT','CANCELLED') NOT NULL,
+    error_message  TEXT         NULL,
+    retry_count    INT          NULL,
+    max_retries    INT          NULL,
+    queue_name     VARCHAR(255) NOT NULL,
+    payload_json   JSON         NULL,
+    result_json    JSON         NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS queue_metrics (
+    id                              BIGINT       NOT NULL AUTO_INCREMENT,
+    queue_name                      VARCHAR(255) NOT NULL,
+    pending_count                   BIGINT       NOT NULL,
+    in_progress_count               BIGINT       NOT NULL,
+    completed_count                 BIGINT       NOT NULL,
+    failed_count                    BIGINT       NOT NULL,
+    average_wait_time_seconds       DOUBLE       NULL,
+    average_processing_time_seconds DOUBLE       NULL,
+    max_wait_time_seconds           BIGINT       NULL,
+    max_processing_time_seconds     BIGINT       NULL,
+    last_updated                    DATETIME(6)  NOT NULL,
+    record_date                     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,60 @@
+-- Índices compuestos alineados con las consultas de los repositorios y
+-- particionado mensual de operation_requests por submitted_at.
+
+-- Hibernate creaba los enums como ENUM(...) nativos; se pasan a VARCHAR para que
+-- añadir un valor nuevo no obligue a reescribir la tabla.
+ALTER TABLE operation_requests
+    MODIFY operation_type VARCHAR(32) NOT NULL,
+    MODIFY cluster_type   VARCHAR(32) NOT NULL,
+    MODIFY priority       VARCHAR(16) NOT NULL,
+    MODIFY status         VARCHAR(16) NOT NULL;
+
+ALTER TABLE operation_outbox
+    MODIFY status VARCHAR(16) NOT NULL;
+
+-- MySQL exige que toda clave única incluya la columna de particionado
+ALTER TABLE operation_requests
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, submitted_at);
+
+-- findByQueueNameAndStatus, countByQueueNameAndStatus, countGroupedByQueueNameAndStatus
+-- y los promedios por cola. Incluye las marcas de tiempo para que los agregados
+-- se resuelvan solo con el índice.
+CREATE INDEX idx_opreq_queue_status
+    ON operation_requests (queue_name, status, submitted_at, started_at, completed_at);
+
+-- findByUserIdAndStatusIn
+CREATE INDEX idx_opreq_user_status ON operation_requests (user_id, status);
+
+-- findByStatusAndStartedAtBefore (operaciones IN_PROGRESS vencidas)
+CREATE INDEX idx_opreq_status_started ON operation_requests (status, started_at);
+
+-- rollupActiveAndCompletedBetween: rangos por estado y ventana de completed_at
+CREATE INDEX idx_opreq_status_completed ON operation_requests (status, completed_at);
+
+-- Particiones mensuales; PartitionMaintenanceService crea las siguientes
+-- dividiendo p_future antes de que lleguen datos del mes.
+ALTER TABLE operation_requests
+    PARTITION BY RANGE COLUMNS (submitted_at) (
+        PARTITION p_history VALUES LESS THAN ('2026-01-01'),
+        PARTITION p202601 VALUES LESS THAN ('2026-02-01'),
+        PARTITION p202602 VALUES LESS THAN ('2026-03-01'),
+        PARTITION p202603 VALUES LESS THAN ('2026-04-01'),
+        PARTITION p202604 VALUES LESS THAN ('2026-05-01'),
+        PARTITION p202605 VALUES LESS THAN ('2026-06-01'),
+        PARTITION p202606 VALUES LESS THAN ('2026-07-01'),
+        PARTITION p202607 VALUES LESS THAN ('2026-08-01'),
+        PARTITION p202608 VALUES LESS THAN ('2026-09-01'),
+        PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
+
+-- findTopByQueueNameOrderByRecordDateDesc, findByQueueNameAndTimeRange, findLatestPerQueue
+CREATE INDEX idx_qm_queue_record ON queue_metrics (queue_name, record_date);
+
+-- lockNextPendingBatch (WHERE status = 'PENDING' ORDER BY id) y deletePublishedBefore
+CREATE INDEX idx_outbox_status_id ON operation_outbox (status, id);
+CREATE INDEX idx_outbox_status_published ON operation_outbox (status, published_at);
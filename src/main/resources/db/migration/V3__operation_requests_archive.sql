@@ -0,0 +1,30 @@
+-- Almacén frío para operaciones terminadas. ArchiveService mueve aquí por lotes
+-- las filas COMPLETED/FAILED/CANCELLED/TIMEOUT más antiguas que queue.archive.min-age-hours,
+-- de modo que operation_requests solo conserve el conjunto de trabajo.
+
+CREATE TABLE IF NOT EXISTS operation_requests_archive (
+    id             BIGINT       NOT NULL,
+    operation_type VARCHAR(32)  NOT NULL,
+    cluster_type   VARCHAR(32)  NOT NULL,
+    zone_id        INT          NOT NULL,
+    user_id        BIGINT       NOT NULL,
+    priority       VARCHAR(16)  NOT NULL,
+    submitted_at   DATETIME(6)  NOT NULL,
+    started_at     DATETIME(6)  NULL,
+    completed_at   DATETIME(6)  NULL,
+    status         VARCHAR(16)  NOT NULL,
+    error_message  TEXT         NULL,
+    retry_count    INT          NULL,
+    max_retries    INT          NULL,
+    queue_name     VARCHAR(255) NOT NULL,
+    payload_json   JSON         NULL,
+    result_json    JSON         NULL,
+    archived_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Consultas de operaciones de un usuario que caen en el archivo
+CREATE INDEX idx_opreq_archive_user_status ON operation_requests_archive (user_id, status);
+
+-- Conteos por cola y estado al reconciliar QueueCounters
+CREATE INDEX idx_opreq_archive_queue_status ON operation_requests_archive (queue_name, status);
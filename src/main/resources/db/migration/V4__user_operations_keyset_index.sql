@@ -0,0 +1,6 @@
+-- Paginación por cursor de las operaciones de un usuario:
+-- WHERE user_id = ? ... ORDER BY submitted_at DESC, id DESC LIMIT n
+-- recorre el índice en orden y se detiene al llenar la página.
+CREATE INDEX idx_opreq_user_submitted ON operation_requests (user_id, submitted_at, id);
+
+CREATE INDEX idx_opreq_archive_user_submitted ON operation_requests_archive (user_id, submitted_at, id);
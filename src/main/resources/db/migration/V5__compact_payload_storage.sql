@@ -0,0 +1,9 @@
+-- Almacenamiento compacto de payload/resultado (queue.storage.codec=smile-deflate).
+-- Las columnas JSON se mantienen para las filas escritas con el codec json.
+ALTER TABLE operation_requests
+    ADD COLUMN payload_blob LONGBLOB NULL,
+    ADD COLUMN result_blob  LONGBLOB NULL;
+
+ALTER TABLE operation_requests_archive
+    ADD COLUMN payload_blob LONGBLOB NULL,
+    ADD COLUMN result_blob  LONGBLOB NULL;
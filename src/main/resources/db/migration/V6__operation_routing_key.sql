@@ -0,0 +1,10 @@
+-- Clave de enrutado del mensaje en Kafka ("slice-<id>" o "user-<id>"), para poder
+-- cancelar en bloque todas las operaciones pendientes de un slice:
+-- UPDATE ... WHERE routing_key = ? AND status = 'PENDING'
+ALTER TABLE operation_requests
+    ADD COLUMN routing_key VARCHAR(100) NULL;
+
+ALTER TABLE operation_requests_archive
+    ADD COLUMN routing_key VARCHAR(100) NULL;
+
+CREATE INDEX idx_opreq_routing_status ON operation_requests (routing_key, status);
@@ -0,0 +1,15 @@
+-- Claves Idempotency-Key de POST /api/queue/operations. La unicidad no puede ir en
+-- operation_requests: al estar particionada por mes, cualquier índice único debe
+-- incluir submitted_at. La fila se reserva con operation_id NULL al empezar el
+-- encolado y se completa en la misma transacción; un reintento concurrente con la
+-- misma clave espera en la PK y después devuelve la operación original.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(100) NOT NULL,
+    user_id         BIGINT       NOT NULL,
+    operation_id    BIGINT       NULL,
+    created_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (idempotency_key)
+) ENGINE = InnoDB;
+
+-- Limpieza de claves caducadas (queue.idempotency.retention-hours)
+CREATE INDEX idx_idempotency_created ON idempotency_keys (created_at);
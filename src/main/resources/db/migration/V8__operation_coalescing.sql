@@ -0,0 +1,10 @@
+-- Coalescencia al encolar (OperationCoalescer): una operación PENDING que otra más
+-- reciente deja sin efecto pasa a CANCELLED con superseded_by apuntando a la ganadora
+ALTER TABLE operation_requests
+    ADD COLUMN superseded_by BIGINT NULL;
+
+ALTER TABLE operation_requests_archive
+    ADD COLUMN superseded_by BIGINT NULL;
+
+-- cancelOutboxEvents: el evento aún no publicado de la operación reemplazada
+CREATE INDEX idx_outbox_operation_status ON operation_outbox (operation_id, status);
@@ -0,0 +1,36 @@
+-- Marca de tiempo asignada por la BD cuando una operación pasa a COMPLETED o
+-- FAILED. El rollup incremental de queue_metrics avanza su watermark sobre esta
+-- columna y no sobre completed_at, que escriben la aplicación y los workers con
+-- sus propios relojes. Se asigna en UTC en un trigger, así que cubre todos los
+-- caminos de escritura (JPA, lotes JDBC) sin depender de la zona de la sesión.
+--
+-- Privilegios: con el binlog activo (log_bin=ON, el valor por defecto en MySQL 8)
+-- crear triggers exige que el usuario de Flyway tenga SUPER o que el servidor tenga
+-- log_bin_trust_function_creators=1. Si no, la migración falla con el error 1419 y
+-- debe aplicarse de nuevo tras conceder uno de los dos:
+--   SET GLOBAL log_bin_trust_function_creators = 1;
+-- y, como MySQL no revierte el ALTER TABLE, borrar antes la columna terminal_at y
+-- ejecutar flyway repair para limpiar la migración fallida del historial.
+ALTER TABLE operation_requests
+    ADD COLUMN terminal_at DATETIME(6) NULL;
+
+-- Las ya terminadas conservan su completed_at (escrito en UTC, serverTimezone=UTC),
+-- para que el checkpoint guardado en queue_metrics siga siendo válido
+UPDATE operation_requests
+SET terminal_at = completed_at
+WHERE status IN ('COMPLETED', 'FAILED') AND terminal_at IS NULL;
+
+CREATE TRIGGER trg_opreq_terminal_at_insert
+    BEFORE INSERT ON operation_requests
+    FOR EACH ROW
+    SET NEW.terminal_at = IF(NEW.status IN ('COMPLETED', 'FAILED'), UTC_TIMESTAMP(6), NULL);
+
+CREATE TRIGGER trg_opreq_terminal_at_update
+    BEFORE UPDATE ON operation_requests
+    FOR EACH ROW
+    SET NEW.terminal_at = IF(NEW.status IN ('COMPLETED', 'FAILED'),
+                             IF(OLD.status IN ('COMPLETED', 'FAILED'), OLD.terminal_at, UTC_TIMESTAMP(6)),
+                             NULL);
+
+-- rollupActiveAndCompletedBetween: rangos por estado y ventana de terminal_at
+CREATE INDEX idx_opreq_status_terminal ON operation_requests (status, terminal_at);
@@ -0,0 +1,80 @@
+package com.example.queuemanagermodule.config;
+
+import com.example.queuemanagermodule.model.QueueItem;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Infraestructura del stack reactivo (perfil "reactive"): pool R2DBC hacia MySQL y
+ * un KafkaSender no bloqueante. La autoconfiguración de R2DBC de Spring Boot está
+ * excluida para que no compita con el TransactionManager de JPA. El servidor HTTP
+ * sigue siendo el de servlet (ver {@link com.example.queuemanagermodule.controller.ReactiveQueueController}).
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.wire.binary-topics:}")
+    private List<String> binaryTopics;
+
+    @Value("${kafka.wire.compression-type:gzip}")
+    private String queueItemCompressionType;
+
+    @Value("${kafka.wire.max-request-size:5242880}")
+    private int queueItemMaxRequestSize;
+
+    @Bean
+    public ConnectionFactory reactiveConnectionFactory(@Value("${spring.r2dbc.url}") String url,
+                                                       @Value("${spring.r2dbc.username}") String username,
+                                                       @Value("${spring.r2dbc.password}") String password) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return ConnectionFactories.get(options);
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionFactory reactiveConnectionFactory) {
+        return DatabaseClient.create(reactiveConnectionFactory);
+    }
+
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, QueueItem> queueItemKafkaSender() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+                org.apache.kafka.common.serialization.StringSerializer.class);
+        QueueItemSerde.configureValueSerializer(configProps, binaryTopics);
+
+        // Mismas garantías que el producer bloqueante
+        configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG,
+                SliceIdPartitioner.class.getName());
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.RETRIES_CONFIG, 10);
+        configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // 5MB por defecto; con claim-check activo puede bajarse al umbral más un margen
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, queueItemMaxRequestSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, queueItemCompressionType);
+
+        return KafkaSender.create(SenderOptions.create(configProps));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.queuemanagermodule.controller;
+
+import com.example.queuemanagermodule.model.*;
+import com.example.queuemanagermodule.service.AdmissionRejectedException;
+import com.example.queuemanagermodule.service.ReactiveQueueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Variante reactiva de los endpoints de encolado y consulta de estado. Corre junto al
+ * {@link QueueController} bajo el prefijo /api/queue/reactive para poder comparar
+ * throughput y latencia de ambos stacks sobre el mismo hardware.
+ * <p>
+ * Limitación: spring-boot-starter-web sigue en el classpath, así que la aplicación
+ * arranca como servlet (Tomcat) también con el perfil "reactive" y este controlador
+ * lo sirve Spring MVC, que trata el Mono como una respuesta asíncrona. El hilo de
+ * Tomcat se libera mientras se espera a R2DBC y a Kafka, pero no hay event loop de
+ * Netty: la comparación mide la capa de datos y mensajería (R2DBC + reactor-kafka
+ * frente a JDBC + KafkaTemplate), no Netty frente a Tomcat. Pasar a
+ * web-application-type=reactive exigiría sacar del contexto los controladores que
+ * usan tipos solo de servlet (WebRequest, SseEmitter) y los servicios JPA bloqueantes.
+ * <p>
+ * Diferencias de comportamiento con POST /api/queue/operations: aquí se aplica el
+ * control de admisión, pero no la cabecera Idempotency-Key, ni la fusión de
+ * operaciones del mismo slice, ni el outbox (queue.outbox.enabled), porque esos
+ * caminos son transacciones JPA. Un reintento del cliente crea otra operación, y si
+ * Kafka falla la operación queda FAILED en lugar de esperar al relay. Por eso este
+ * endpoint es para pruebas de rendimiento, no para tráfico real. Solo existe en los
+ * artefactos compilados con -Preactive.
+ */
+@RestController
+@RequestMapping("/api/queue/reactive")
+@RequiredArgsConstructor
+@Slf4j
+@Profile("reactive")
+public class ReactiveQueueController {
+
+    private final ReactiveQueueService reactiveQueueService;
+
+    @PostMapping("/operations")
+    public Mono<ResponseEntity<Map<String, Object>>> enqueueOperation(@RequestBody Map<String, Object> request) {
+        log.debug("Recibida solicitud reactiva para encolar operación: {}", request);
+
+        return Mono.defer(() -> {
+                    OperationType operationType = OperationType.valueOf((String) request.get("operationType"));
+                    ClusterType clusterType = ClusterType.valueOf((String) request.get("clusterType"));
+                    Integer zoneId = (Integer) request.get("zoneId");
+                    Long userId = Long.valueOf(request.get("userId").toString());
+                    Map<String, Object> payload = (Map<String, Object>) request.get("payload");
+                    String priorityStr = (String) request.get("priority");
+                    Priority priority = priorityStr != null ? Priority.valueOf(priorityStr) : null;
+
+                    return reactiveQueueService.enqueueOperation(
+                            operationType, clusterType, zoneId, userId, payload, priority);
+                })
+                .map(operationId -> ResponseEntity.ok(Map.<String, Object>of(
+                        "success", true,
+                        "message", "Operación encolada exitosamente",
+                        "operationId", operationId
+                )))
+                .onErrorResume(AdmissionRejectedException.class, e -> {
+                    log.warn("Encolado rechazado por admisión ({}): {}", e.getReason(), e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                            .body(Map.of(
+                                    "success", false,
+                                    "message", e.getMessage(),
+                                    "retryAfterSeconds", e.getRetryAfterSeconds()
+                            )));
+                })
+                .onErrorResume(e -> {
+                    log.error("Error al encolar la operación", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                            "success", false,
+                            "message", "Error al encolar la operación: " + e.getMessage()
+                    )));
+                });
+    }
+
+    @GetMapping("/operations/{operationId}")
+    public Mono<ResponseEntity<Map<String, Object>>> getOperationStatus(@PathVariable Long operationId) {
+        return reactiveQueueService.getOperationStatus(operationId)
+                .map(status -> ResponseEntity.ok(Map.<String, Object>of(
+                        "success", true,
+                        "operationId", operationId,
+                        "status", status
+                )))
+                .onErrorResume(e -> {
+                    log.error("Error al consultar el estado de la operación", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                            "success", false,
+                            "message", "Error al consultar el estado: " + e.getMessage()
+                    )));
+                });
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.queuemanagermodule.service;
+
+import com.example.queuemanagermodule.model.*;
+import com.example.queuemanagermodule.util.RoutingKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Variante reactiva del encolado: persiste con R2DBC y publica con reactor-kafka,
+ * sin bloquear ningún hilo esperando a MySQL o al broker.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@Profile("reactive")
+public class ReactiveQueueService {
+
+    private static final String INSERT_OPERATION =
+            "INSERT INTO operation_requests (operation_type, cluster_type, zone_id, user_id, priority, " +
+            "submitted_at, status, retry_count, max_retries, queue_name, payload_json, payload_blob, routing_key) " +
+            "VALUES (:operationType, :clusterType, :zoneId, :userId, :priority, " +
+            ":submittedAt, :status, :retryCount, :maxRetries, :queueName, :payloadJson, :payloadBlob, :routingKey)";
+
+    private static final String MARK_FAILED =
+            "UPDATE operation_requests SET status = 'FAILED', error_message = :errorMessage, " +
+            "completed_at = :completedAt WHERE id = :id AND status = 'PENDING'";
+
+    private static final String SELECT_STATUS = "SELECT status FROM operation_requests WHERE id = :id";
+
+    private final DatabaseClient databaseClient;
+    private final KafkaSender<String, QueueItem> queueItemKafkaSender;
+    private final KafkaProducerService kafkaProducerService;
+    private final OperationFactory operationFactory;
+    private final PayloadCodec payloadCodec;
+    private final ActiveOperationIndex activeOperationIndex;
+    private final OperationEventPublisher operationEventPublisher;
+    private final AdmissionControl admissionControl;
+
+    /**
+     * Encola una nueva operación. El Mono emite el ID una vez que Kafka confirmó el envío.
+     */
+    public Mono<Long> enqueueOperation(OperationType type, ClusterType clusterType, Integer zoneId,
+                                       Long userId, Map<String, Object> payload, Priority requestedPriority) {
+        log.info("Encolando operación (reactivo): {}, cluster: {}, zona: {}, usuario: {}, prioridad solicitada: {}",
+                type, clusterType, zoneId, userId, requestedPriority);
+
+        Priority finalPriority = operationFactory.resolvePriority(type, clusterType, userId, payload, requestedPriority);
+        QueueRoute route = operationFactory.route(clusterType, zoneId, finalPriority);
+        String queueName = route.getQueueName();
+        String topicName = route.getTopic();
+        admissionControl.admit(userId, clusterType, zoneId, finalPriority);
+
+        return Mono.fromCallable(() -> {
+                    OperationRequest operationRequest = operationFactory.buildRequest(
+                            type, clusterType, zoneId, userId, finalPriority, queueName);
+                    payloadCodec.writePayload(operationRequest, payload);
+                    operationRequest.setRoutingKey(RoutingKeys.of(type, userId, payload));
+                    return operationRequest;
+                })
+                .onErrorMap(e -> new RuntimeException("Error al procesar el payload", e))
+                .flatMap(this::insert)
+                .doOnNext(operationEventPublisher::publishCreated)
+                // buildQueueItem puede escribir el payload en el almacén de claim-check
+                .flatMap(operationRequest -> Mono.fromCallable(() -> operationFactory.buildQueueItem(operationRequest, payload))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(queueItem -> publish(topicName, queueItem));
+    }
+
+    /**
+     * Obtiene el estado actual de una operación
+     */
+    public Mono<OperationStatus> getOperationStatus(Long operationId) {
+        if (activeOperationIndex.isAuthoritative()) {
+            OperationStatus activeStatus = activeOperationIndex.get(operationId);
+            if (activeStatus != null) {
+                return Mono.just(activeStatus);
+            }
+        }
+        return databaseClient.sql(SELECT_STATUS)
+                .bind("id", operationId)
+                .map(row -> OperationStatus.valueOf(row.get("status", String.class)))
+                .one()
+                .switchIfEmpty(Mono.error(new RuntimeException("Operación no encontrada: " + operationId)));
+    }
+
+    private Mono<OperationRequest> insert(OperationRequest operationRequest) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_OPERATION)
+                .bind("operationType", operationRequest.getOperationType().name())
+                .bind("clusterType", operationRequest.getClusterType().name())
+                .bind("zoneId", operationRequest.getZoneId())
+                .bind("userId", operationRequest.getUserId())
+                .bind("priority", operationRequest.getPriority().name())
+                .bind("submittedAt", operationRequest.getSubmittedAt())
+                .bind("status", operationRequest.getStatus().name())
+                .bind("retryCount", operationRequest.getRetryCount())
+                .bind("maxRetries", operationRequest.getMaxRetries())
+                .bind("queueName", operationRequest.getQueueName())
+                .bind("routingKey", operationRequest.getRoutingKey());
+        // El codec deja solo una de las dos columnas con valor
+        spec = operationRequest.getPayloadJson() != null
+                ? spec.bind("payloadJson", operationRequest.getPayloadJson())
+                : spec.bindNull("payloadJson", String.class);
+        spec = operationRequest.getPayloadBlob() != null
+                ? spec.bind("payloadBlob", ByteBuffer.wrap(operationRequest.getPayloadBlob()))
+                : spec.bindNull("payloadBlob", ByteBuffer.class);
+
+        return spec
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    operationRequest.setId(id);
+                    return operationRequest;
+                });
+    }
+
+    private Mono<Long> publish(String topicName, QueueItem queueItem) {
+        String messageKey = kafkaProducerService.extractMessageKey(queueItem);
+        SenderRecord<String, QueueItem, Long> record =
+                SenderRecord.create(new ProducerRecord<>(topicName, messageKey, queueItem), queueItem.getId());
+
+        return queueItemKafkaSender.send(Mono.just(record))
+                .next()
+                .flatMap(result -> result.exception() == null
+                        ? Mono.just(result.correlationMetadata())
+                        : Mono.error(result.exception()))
+                .doOnNext(id -> log.info("Operación encolada exitosamente (reactivo). ID: {}, Cola: {}, Tópico: {}",
+                        id, queueItem.getQueueName(), topicName))
+                .onErrorResume(e -> {
+                    log.error("Error enviando QueueItem ID={} a {}: {}", queueItem.getId(), topicName, e.getMessage(), e);
+                    return markFailed(queueItem.getId())
+                            .doOnSuccess(ignored -> operationEventPublisher.publishTransition(
+                                    queueItem, OperationStatus.PENDING, OperationStatus.FAILED))
+                            .then(Mono.error(new RuntimeException("Error al publicar en Kafka", e)));
+                });
+    }
+
+    private Mono<Void> markFailed(Long operationId) {
+        return databaseClient.sql(MARK_FAILED)
+                .bind("errorMessage", "Error al publicar en Kafka")
+                .bind("completedAt", LocalDateTime.now())
+                .bind("id", operationId)
+                .then();
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.queuemanagermodule.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con EXPLAIN que cada consulta de los repositorios usa el índice
+ * creado para ella en db/migration. El SQL reproduce el que genera Hibernate.
+ * Necesita MySQL: se ejecuta con -Pmysql-tests sobre el esquema del perfil test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("mysql")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OperationRequestIndexTests {
+
+    private static final String TEST_QUEUE_PREFIX = "INDEX_TEST_";
+    private static final long TEST_USER_BASE = 9_000_000L;
+    private static final String[] STATUSES = {"PENDING", "IN_PROGRESS", "COMPLETED", "FAILED", "CANCELLED", "TIMEOUT"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        // Datos suficientes y variados para que el optimizador prefiera los índices
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String status = STATUSES[i % STATUSES.length];
+            LocalDateTime submittedAt = now.minusMinutes(i);
+            boolean started = !status.equals("PENDING");
+            boolean finished = started && !status.equals("IN_PROGRESS");
+            rows.add(new Object[]{
+                    TEST_USER_BASE + (i % 200),
+                    Timestamp.valueOf(submittedAt),
+                    started ? Timestamp.valueOf(submittedAt.plusSeconds(5)) : null,
+                    finished ? Timestamp.valueOf(submittedAt.plusSeconds(30)) : null,
+                    status,
+                    TEST_QUEUE_PREFIX + (i % 20),
+                    "slice-index-test-" + (i % 500)});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO operation_requests (operation_type, cluster_type, zone_id, user_id, priority, " +
+                "submitted_at, started_at, completed_at, status, retry_count, max_retries, queue_name, routing_key) " +
+                "VALUES ('DEPLOY_SLICE', 'LINUX', 1, ?, 'MEDIUM', ?, ?, ?, ?, 0, 3, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE TABLE operation_requests");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM operation_requests WHERE queue_name LIKE ?", TEST_QUEUE_PREFIX + "%");
+    }
+
+    @Test
+    void findByQueueNameAndStatusUsesQueueStatusIndex() {
+        assertUsesIndex("idx_opreq_queue_status",
+                "SELECT * FROM operation_requests WHERE queue_name = ? AND status = ?",
+                TEST_QUEUE_PREFIX + "1", "PENDING");
+    }
+
+    @Test
+    void countByQueueNameAndStatusUsesQueueStatusIndex() {
+        assertUsesIndex("idx_opreq_queue_status",
+                "SELECT COUNT(id) FROM operation_requests WHERE queue_name = ? AND status = ?",
+                TEST_QUEUE_PREFIX + "1", "PENDING");
+    }
+
+    @Test
+    void findByStatusAndStartedAtBeforeUsesStatusStartedIndex() {
+        assertUsesIndex("idx_opreq_status_started",
+                "SELECT * FROM operation_requests WHERE status = ? AND started_at < ?",
+                "IN_PROGRESS", Timestamp.valueOf(LocalDateTime.now().minusHours(2)));
+    }
+
+    @Test
+    void findByUserIdAndStatusInUsesUserStatusIndex() {
+        assertUsesIndex("idx_opreq_user_status",
+                "SELECT * FROM operation_requests WHERE user_id = ? AND status IN (?, ?)",
+                TEST_USER_BASE + 1, "PENDING", "IN_PROGRESS");
+    }
+
+    @Test
+    void calculateAverageWaitTimeUsesQueueStatusIndex() {
+        assertUsesIndex("idx_opreq_queue_status",
+                "SELECT AVG(TIMESTAMPDIFF(SECOND, submitted_at, started_at)) FROM operation_requests " +
+                "WHERE queue_name = ? AND status IN ('IN_PROGRESS', 'COMPLETED', 'FAILED')",
+                TEST_QUEUE_PREFIX + "1");
+    }
+
+    @Test
+    void calculateAverageProcessingTimeUsesQueueStatusIndex() {
+        assertUsesIndex("idx_opreq_queue_status",
+                "SELECT AVG(TIMESTAMPDIFF(SECOND, started_at, completed_at)) FROM operation_requests " +
+                "WHERE queue_name = ? AND status IN ('COMPLETED', 'FAILED') " +
+                "AND started_at IS NOT NULL AND completed_at IS NOT NULL",
+                TEST_QUEUE_PREFIX + "1");
+    }
+
+    @Test
+    void updateStatusForIdsUsesPrimaryKey() {
+        assertUsesIndex("PRIMARY",
+                "UPDATE operation_requests SET status = 'FAILED' WHERE id IN (?, ?, ?) AND status = 'PENDING'",
+                1L, 2L, 3L);
+    }
+
+    @Test
+    void countGroupedByQueueNameAndStatusUsesQueueStatusIndex() {
+        assertUsesIndex("idx_opreq_queue_status",
+                "SELECT queue_name, status, COUNT(id) FROM operation_requests GROUP BY queue_name, status");
+    }
+
+    @Test
+    void averagesByQueueUseQueueStatusIndex() {
+        assertUsesIndex("idx_opreq_queue_status",
+                "SELECT queue_name, AVG(TIMESTAMPDIFF(SECOND, submitted_at, started_at)) FROM operation_requests " +
+                "WHERE status IN ('IN_PROGRESS', 'COMPLETED', 'FAILED') GROUP BY queue_name");
+        assertUsesIndex("idx_opreq_queue_status",
+                "SELECT queue_name, AVG(TIMESTAMPDIFF(SECOND, started_at, completed_at)) FROM operation_requests " +
+                "WHERE status IN ('COMPLETED', 'FAILED') AND started_at IS NOT NULL AND completed_at IS NOT NULL " +
+                "GROUP BY queue_name");
+    }
+
+    @Test
+    void rollupActiveAndCompletedBetweenUsesStatusTerminalIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        assertUsesIndex("idx_opreq_status_terminal",
+                "SELECT queue_name, status, COUNT(id) FROM operation_requests " +
+                "WHERE status IN ('PENDING', 'IN_PROGRESS') " +
+                "OR (status IN ('COMPLETED', 'FAILED') AND terminal_at > ? AND terminal_at <= ?) " +
+                "GROUP BY queue_name, status",
+                Timestamp.valueOf(now.minusMinutes(5)), Timestamp.valueOf(now));
+    }
+
+    @Test
+    void recentRangeQueriesPruneOldPartitions() {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM operation_requests WHERE submitted_at >= ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(1)));
+        String partitions = String.valueOf(plan.get(0).get("partitions"));
+        assertTrue(!partitions.contains("p_history"), "No se podaron las particiones antiguas: " + partitions);
+    }
+
+    @Test
+    void queueMetricsQueriesUseQueueRecordIndex() {
+        assertUsesIndex("idx_qm_queue_record",
+                "SELECT * FROM queue_metrics WHERE queue_name = ? ORDER BY record_date DESC LIMIT 1",
+                TEST_QUEUE_PREFIX + "1");
+        assertUsesIndex("idx_qm_queue_record",
+                "SELECT * FROM queue_metrics WHERE queue_name = ? AND record_date BETWEEN ? AND ? ORDER BY record_date",
+                TEST_QUEUE_PREFIX + "1", Timestamp.valueOf(LocalDateTime.now().minusDays(1)),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Test
+    void userSummaryPageUsesUserSubmittedIndex() {
+        LocalDateTime cursor = LocalDateTime.now().minusHours(1);
+        assertUsesIndex("idx_opreq_user_submitted",
+                "SELECT id, status, submitted_at FROM operation_requests WHERE user_id = ? " +
+                "AND status IN ('PENDING', 'IN_PROGRESS', 'COMPLETED', 'FAILED', 'CANCELLED') " +
+                "AND (submitted_at < ? OR (submitted_at = ? AND id < ?)) " +
+                "ORDER BY submitted_at DESC, id DESC LIMIT 51",
+                TEST_USER_BASE + 1, Timestamp.valueOf(cursor), Timestamp.valueOf(cursor), Long.MAX_VALUE);
+    }
+
+    @Test
+    void findArchivableIdsUsesStatusTerminalIndex() {
+        assertUsesIndex("idx_opreq_status_terminal",
+                "SELECT id FROM operation_requests WHERE status IN ('COMPLETED', 'FAILED', 'CANCELLED', 'TIMEOUT') " +
+                "AND terminal_at < ? LIMIT 1000",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(24)));
+    }
+
+    @Test
+    void archiveQueriesUseArchiveIndexes() {
+        assertUsesIndex("idx_opreq_archive_user_status",
+                "SELECT * FROM operation_requests_archive WHERE user_id = ? AND status IN ('COMPLETED', 'FAILED')",
+                TEST_USER_BASE + 1);
+        assertUsesIndex("idx_opreq_archive_queue_status",
+                "SELECT queue_name, status, COUNT(*) FROM operation_requests_archive GROUP BY queue_name, status");
+    }
+
+    @Test
+    void bulkCancelLookupsUseUserAndRoutingKeyIndexes() {
+        assertUsesIndex("idx_opreq_user_status",
+                "SELECT id FROM operation_requests WHERE user_id = ? AND status = 'PENDING' FOR UPDATE",
+                TEST_USER_BASE + 1);
+        assertUsesIndex("idx_opreq_routing_status",
+                "SELECT id FROM operation_requests WHERE routing_key = ? AND status = 'PENDING' FOR UPDATE",
+                "slice-index-test-1");
+    }
+
+    @Test
+    void coalescingLookupsUseRoutingKeyAndOutboxOperationIndexes() {
+        assertUsesIndex("idx_opreq_routing_status",
+                "SELECT * FROM operation_requests WHERE routing_key = ? AND status = 'PENDING' " +
+                "AND submitted_at >= ? ORDER BY id DESC LIMIT 50",
+                "slice-index-test-1", Timestamp.valueOf(LocalDateTime.now().minusSeconds(5)));
+        assertUsesIndex("idx_outbox_operation_status",
+                "UPDATE operation_outbox SET status = 'CANCELLED' WHERE operation_id = ? AND status = 'PENDING'",
+                1L);
+    }
+
+    @Test
+    void recentCancellationsUseStatusCompletedIndex() {
+        assertUsesIndex("idx_opreq_status_completed",
+                "SELECT id FROM operation_requests WHERE status = 'CANCELLED' AND completed_at >= ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(24)));
+    }
+
+    @Test
+    void lockNextPendingBatchUsesOutboxStatusIndex() {
+        assertUsesIndex("idx_outbox_status_id",
+                "SELECT * FROM operation_outbox WHERE status = 'PENDING' " +
+                "AND (next_attempt_at IS NULL OR next_attempt_at <= ?) ORDER BY id LIMIT 200",
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void assertUsesIndex(String expectedIndex, String sql, Object... params) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, params);
+        boolean used = plan.stream().anyMatch(row -> {
+            Object key = row.get("key");
+            return key != null && List.of(key.toString().split(",")).contains(expectedIndex);
+        });
+        assertTrue(used, "Se esperaba el índice " + expectedIndex + " para: " + sql + "\nPlan: " + plan);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.queuemanagermodule.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que cada plazo vence en el primer avance que alcanza su tick, ni antes
+ * ni después, también cuando baja por varios niveles o está más allá del alcance.
+ */
+class HierarchicalTimingWheelTests {
+
+    private static final long TICK = 10;
+    private static final long START = 1_000_005;
+
+    @Test
+    void expiresOnTheFirstAdvanceThatReachesTheDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 4, 40, START);
+        // El plazo se redondea hacia arriba al tick: 1_000_030
+        wheel.schedule(1, 1_000_021);
+
+        List<Long> expired = new ArrayList<>();
+        assertEquals(0, wheel.advance(1_000_021, expired::add));
+        assertEquals(0, wheel.advance(1_000_029, expired::add));
+        assertTrue(expired.isEmpty());
+
+        assertEquals(1, wheel.advance(1_000_030, expired::add));
+        assertEquals(List.of(1L), expired);
+        assertFalse(wheel.contains(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesAcrossLevelsWithoutExpiringEarly() {
+        // 8 ranuras por nivel y 10 s de plazo máximo: cuatro niveles
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, 10_000, START);
+        Random random = new Random(7);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 1; id <= 2_000; id++) {
+            long deadline = START + random.nextInt(10_000);
+            deadlines.put(id, deadline);
+            wheel.schedule(id, deadline);
+        }
+
+        assertExpiresOnTime(wheel, deadlines, 7, START + 10_100);
+    }
+
+    @Test
+    void deadlinesBeyondTheRangeAreParkedAndExpireOnTime() {
+        // Un solo nivel de 40 ms y plazos de hasta 5 s: las aparcadas caen en el nivel 0
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 4, 40, START);
+        Map<Long, Long> deadlines = new HashMap<>();
+        deadlines.put(1L, START + 39);
+        deadlines.put(2L, START + 41);
+        deadlines.put(3L, START + 1_234);
+        deadlines.put(4L, START + 5_000);
+        deadlines.forEach(wheel::schedule);
+
+        assertExpiresOnTime(wheel, deadlines, TICK, START + 5_100);
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, 1_000, START);
+        wheel.schedule(1, START - 500);
+
+        List<Long> expired = new ArrayList<>();
+        assertEquals(1, wheel.advance(START, expired::add));
+        assertEquals(List.of(1L), expired);
+    }
+
+    @Test
+    void cancelAndRescheduleReplaceThePreviousDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, 10_000, START);
+        wheel.schedule(1, START + 50);
+        wheel.schedule(2, START + 50);
+        wheel.schedule(3, START + 5_000);
+        wheel.schedule(4, START - 1);
+
+        assertTrue(wheel.cancel(2));
+        assertFalse(wheel.cancel(2));
+        assertTrue(wheel.cancel(4));
+        wheel.schedule(1, 1_003_000);
+        assertEquals(2, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+        assertEquals(0, wheel.advance(1_002_999, expired::add));
+        assertEquals(1, wheel.advance(1_003_000, expired::add));
+        assertEquals(List.of(1L), expired);
+
+        assertTrue(wheel.cancel(3));
+        assertEquals(0, wheel.advance(START + 10_000, expired::add));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Avanza de step en step y comprueba que cada id vence en el primer avance que
+     * alcanza su plazo redondeado al tick
+     */
+    private static void assertExpiresOnTime(HierarchicalTimingWheel wheel, Map<Long, Long> deadlines,
+                                            long step, long endMs) {
+        Map<Long, Long> expiredAt = new HashMap<>();
+        for (long now = START; now <= endMs; now += step) {
+            long current = now;
+            wheel.advance(now, id -> assertEquals(null, expiredAt.put(id, current), "Vencido dos veces: " + id));
+        }
+
+        assertEquals(deadlines.size(), expiredAt.size());
+        assertEquals(0, wheel.size());
+        deadlines.forEach((id, deadline) -> {
+            long rounded = (deadline + TICK - 1) / TICK * TICK;
+            long at = expiredAt.get(id);
+            assertTrue(at >= rounded, "Vencido antes de tiempo: " + id + " en " + at + ", plazo " + deadline);
+            assertTrue(at - step < rounded, "Vencido tarde: " + id + " en " + at + ", plazo " + deadline);
+        });
+    }
+}
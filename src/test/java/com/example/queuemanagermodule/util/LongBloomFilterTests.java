@@ -0,0 +1,68 @@
+package com.example.queuemanagermodule.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que no hay falsos negativos, que la tasa de falsos positivos ronda la
+ * pedida y que el formato serializado coincide con vectores calculados fuera de Java.
+ */
+class LongBloomFilterTests {
+
+    @Test
+    void hasNoFalseNegatives() {
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+        Random random = new Random(3);
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+            filter.add(keys[i]);
+        }
+
+        for (long key : keys) {
+            assertTrue(filter.mightContain(key), "Falso negativo: " + key);
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsCloseToTheRequestedOne() {
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+        for (long key = 1; key <= 10_000; key++) {
+            filter.add(key);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (long key = 1_000_000; key < 1_000_000 + probes; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < probes * 0.02, "Demasiados falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    void mix64MatchesSplitMix64() {
+        // Primera salida de SplitMix64 con semilla 0 y con semilla 1
+        assertEquals(0xE220A8397B1DCDAFL, LongBloomFilter.mix64(0));
+        assertEquals(0x910A2DEC89025CC1L, LongBloomFilter.mix64(1));
+    }
+
+    @Test
+    void serializesToTheDocumentedFormat() {
+        // 2 claves al 1 %: 20 bits, redondeados a una palabra de 64, y 22 hashes
+        LongBloomFilter filter = new LongBloomFilter(2, 0.01);
+        filter.add(1);
+        filter.add(42);
+
+        assertEquals(64, filter.numBits());
+        assertEquals(22, filter.numHashes());
+        assertEquals("01" + "00000016" + "00000001" + "2aaa2aa2aa2aa2aa",
+                HexFormat.of().formatHex(filter.toByteArray()));
+    }
+}
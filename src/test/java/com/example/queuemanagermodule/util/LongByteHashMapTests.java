@@ -0,0 +1,107 @@
+package com.example.queuemanagermodule.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba el mapa contra un HashMap, con borrados en medio de clusters y
+ * crecimientos, para que el desplazamiento hacia atrás no pierda entradas.
+ */
+class LongByteHashMapTests {
+
+    @Test
+    void putGetRemove() {
+        LongByteHashMap map = new LongByteHashMap(4);
+
+        map.put(7, (byte) 1);
+        map.put(8, (byte) 2);
+        map.put(7, (byte) 3);
+
+        assertEquals(2, map.size());
+        assertEquals(3, map.get(7));
+        assertEquals(2, map.get(8));
+        assertEquals(LongByteHashMap.MISSING, map.get(9));
+
+        assertEquals(3, map.remove(7));
+        assertEquals(LongByteHashMap.MISSING, map.remove(7));
+        assertEquals(LongByteHashMap.MISSING, map.get(7));
+        assertEquals(2, map.get(8));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void rejectsNonPositiveKeys() {
+        LongByteHashMap map = new LongByteHashMap(4);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, (byte) 1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(-5, (byte) 1));
+        assertEquals(LongByteHashMap.MISSING, map.get(0));
+        assertEquals(LongByteHashMap.MISSING, map.remove(-5));
+    }
+
+    @Test
+    void growsAndKeepsEntries() {
+        LongByteHashMap map = new LongByteHashMap(16);
+        int initialCapacity = map.capacity();
+
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, (byte) (key % 100));
+        }
+
+        assertTrue(map.capacity() > initialCapacity);
+        assertEquals(10_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals((byte) (key % 100), map.get(key));
+        }
+    }
+
+    @Test
+    void removalsInsideClustersKeepTheRestReachable() {
+        // Pocas celdas y muchas claves: clusters largos que cruzan el final del array
+        LongByteHashMap map = new LongByteHashMap(16);
+        Map<Long, Byte> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                Byte previous = expected.remove(key);
+                assertEquals(previous != null ? previous : LongByteHashMap.MISSING, map.remove(key));
+            } else {
+                byte value = (byte) random.nextInt(100);
+                expected.put(key, value);
+                map.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (long key = 1; key <= 2_000; key++) {
+            Byte value = expected.get(key);
+            assertEquals(value != null ? value : LongByteHashMap.MISSING, map.get(key));
+        }
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongByteHashMap map = new LongByteHashMap(16);
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, (byte) 1);
+        }
+
+        map.clear();
+
+        assertEquals(0, map.size());
+        for (long key = 1; key <= 100; key++) {
+            assertEquals(LongByteHashMap.MISSING, map.get(key));
+        }
+        map.put(50, (byte) 4);
+        assertEquals(4, map.get(50));
+    }
+}
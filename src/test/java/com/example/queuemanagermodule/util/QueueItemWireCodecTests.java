@@ -0,0 +1,171 @@
+package com.example.queuemanagermodule.util;
+
+import com.example.queuemanagermodule.model.ClusterType;
+import com.example.queuemanagermodule.model.OperationStatus;
+import com.example.queuemanagermodule.model.OperationType;
+import com.example.queuemanagermodule.model.Priority;
+import com.example.queuemanagermodule.model.QueueItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ida y vuelta del formato v2 con cada combinación de campos presentes, lectura de
+ * mensajes v1 escritos a mano y rechazo de versiones desconocidas o datos truncados.
+ */
+class QueueItemWireCodecTests {
+
+    private static final LocalDateTime ENQUEUED_AT = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_932);
+    private static final LocalDateTime PROCESSED_AT = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1);
+
+    // Borra el campo i de la máscara
+    private static final List<Consumer<QueueItem>> CLEAR_FIELD = List.of(
+            item -> item.setId(null),
+            item -> item.setQueueName(null),
+            item -> item.setOperationType(null),
+            item -> item.setClusterType(null),
+            item -> item.setZoneId(null),
+            item -> item.setUserId(null),
+            item -> item.setPayload(null),
+            item -> item.setPriority(null),
+            item -> item.setEnqueuedAt(null),
+            item -> item.setProcessedAt(null),
+            item -> item.setStatus(null),
+            item -> item.setErrorMessage(null),
+            item -> item.setRetryCount(null),
+            item -> item.setMaxRetries(null),
+            item -> item.setRoutingKey(null),
+            item -> item.setPayloadRef(null),
+            item -> item.setPayloadSize(null));
+
+    @Test
+    void roundTripsEveryCombinationOfPresentFields() {
+        int fields = CLEAR_FIELD.size();
+        for (int mask = 0; mask < 1 << fields; mask++) {
+            QueueItem item = fullItem();
+            for (int field = 0; field < fields; field++) {
+                if ((mask & (1 << field)) == 0) {
+                    CLEAR_FIELD.get(field).accept(item);
+                }
+            }
+
+            byte[] encoded = QueueItemWireCodec.encode(item);
+
+            assertEquals(QueueItemWireCodec.VERSION, encoded[0]);
+            assertEquals(mask, readMask(encoded), "Máscara de " + item);
+            assertEquals(item, QueueItemWireCodec.decode(encoded), "Máscara " + Integer.toBinaryString(mask));
+        }
+    }
+
+    @Test
+    void decodesVersion1Messages() throws IOException {
+        // Mensaje v1 escrito a mano: sin payloadRef ni payloadSize
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(1);
+        out.writeInt((1 << 0) | (1 << 1) | (1 << 2) | (1 << 3) | (1 << 4) | (1 << 5) | (1 << 7) | (1 << 8)
+                | (1 << 10) | (1 << 12) | (1 << 13) | (1 << 14));
+        out.writeLong(123L);
+        writeString(out, "LINUX_ZONE1_HIGH");
+        out.writeByte(OperationType.STOP_SLICE.ordinal());
+        out.writeByte(ClusterType.LINUX.ordinal());
+        out.writeInt(1);
+        out.writeLong(77L);
+        out.writeByte(Priority.HIGH.ordinal());
+        out.writeLong(ENQUEUED_AT.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(ENQUEUED_AT.getNano());
+        out.writeByte(OperationStatus.PENDING.ordinal());
+        out.writeInt(0);
+        out.writeInt(3);
+        writeString(out, "slice-9");
+
+        QueueItem expected = QueueItem.builder()
+                .id(123L)
+                .queueName("LINUX_ZONE1_HIGH")
+                .operationType(OperationType.STOP_SLICE)
+                .clusterType(ClusterType.LINUX)
+                .zoneId(1)
+                .userId(77L)
+                .priority(Priority.HIGH)
+                .enqueuedAt(ENQUEUED_AT)
+                .status(OperationStatus.PENDING)
+                .retryCount(0)
+                .maxRetries(3)
+                .routingKey("slice-9")
+                .build();
+        assertEquals(expected, QueueItemWireCodec.decode(buffer.toByteArray()));
+    }
+
+    @Test
+    void encodingIsStable() {
+        QueueItem item = fullItem();
+        assertArrayEquals(QueueItemWireCodec.encode(item), QueueItemWireCodec.encode(QueueItemWireCodec.decode(
+                QueueItemWireCodec.encode(item))));
+    }
+
+    @Test
+    void rejectsUnknownVersionsAndTruncatedData() {
+        byte[] encoded = QueueItemWireCodec.encode(fullItem());
+
+        byte[] future = encoded.clone();
+        future[0] = QueueItemWireCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> QueueItemWireCodec.decode(future));
+
+        byte[] zero = encoded.clone();
+        zero[0] = 0;
+        assertThrows(IllegalArgumentException.class, () -> QueueItemWireCodec.decode(zero));
+
+        for (int length : new int[]{0, 3, encoded.length / 2, encoded.length - 1}) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> QueueItemWireCodec.decode(truncated),
+                    "Truncado a " + length + " bytes");
+        }
+    }
+
+    private static QueueItem fullItem() {
+        return QueueItem.builder()
+                .id(Long.MAX_VALUE)
+                .queueName("OPENSTACK_ZONE1_LOW")
+                .operationType(OperationType.GENERATE_VNC_TOKEN)
+                .clusterType(ClusterType.OPENSTACK)
+                .zoneId(-1)
+                .userId(42L)
+                .payload(Map.of("sliceId", 9, "name", "ñandú ☃", "vms", List.of(1, 2, 3),
+                        "flags", Map.of("dryRun", true)))
+                .priority(Priority.LOW)
+                .enqueuedAt(ENQUEUED_AT)
+                .processedAt(PROCESSED_AT)
+                .status(OperationStatus.TIMEOUT)
+                .errorMessage("")
+                .retryCount(2)
+                .maxRetries(Integer.MAX_VALUE)
+                .routingKey("slice-9")
+                .payloadRef("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+                .payloadSize(4L * 1024 * 1024 * 1024)
+                .build();
+    }
+
+    private static int readMask(byte[] encoded) {
+        return ((encoded[1] & 0xFF) << 24) | ((encoded[2] & 0xFF) << 16) | ((encoded[3] & 0xFF) << 8)
+                | (encoded[4] & 0xFF);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.queuemanagermodule.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Relleno, tiempo de espera, cobro de varios tokens a la vez y devolución, con
+ * instantes fijos en lugar del reloj.
+ */
+class TokenBucketTests {
+
+    // 10 tokens por segundo: uno cada 100 ms
+    private static final long TOKEN_NANOS = 100_000_000L;
+    private static final long START = 5_000_000_000L;
+
+    @Test
+    void startsFullAndWaitsForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(10, 3, START);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(START));
+        }
+        assertEquals(TOKEN_NANOS, bucket.tryAcquire(START));
+        assertEquals(TOKEN_NANOS / 4, bucket.tryAcquire(START + TOKEN_NANOS * 3 / 4));
+        assertEquals(0, bucket.tryAcquire(START + TOKEN_NANOS));
+    }
+
+    @Test
+    void refillsUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, START);
+        assertEquals(0, bucket.tryAcquire(START, 3));
+
+        // Una hora después solo hay la ráfaga, no 36000 tokens
+        long later = START + 3_600_000_000_000L;
+        assertEquals(0, bucket.tryAcquire(later, 3));
+        assertEquals(TOKEN_NANOS, bucket.tryAcquire(later));
+    }
+
+    @Test
+    void acquiresSeveralTokensAllOrNothing() {
+        TokenBucket bucket = new TokenBucket(10, 5, START);
+        assertEquals(0, bucket.tryAcquire(START, 3));
+
+        // Quedan 2: pedir 4 no consume nada y espera lo que faltan 2 tokens
+        assertEquals(2 * TOKEN_NANOS, bucket.tryAcquire(START, 4));
+        assertEquals(0, bucket.tryAcquire(START, 2));
+        assertEquals(TOKEN_NANOS, bucket.tryAcquire(START));
+    }
+
+    @Test
+    void rejectsMorePermitsThanTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 5, START);
+
+        assertThrows(IllegalArgumentException.class, () -> bucket.tryAcquire(START, 6));
+        assertEquals(0, bucket.tryAcquire(START, 5));
+    }
+
+    @Test
+    void refundReturnsTokensWithoutExceedingTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 4, START);
+        assertEquals(0, bucket.tryAcquire(START, 4));
+
+        bucket.refund(3);
+        assertEquals(0, bucket.tryAcquire(START, 3));
+        assertEquals(TOKEN_NANOS, bucket.tryAcquire(START));
+
+        bucket.refund(100);
+        assertEquals(0, bucket.tryAcquire(START, 4));
+        assertEquals(TOKEN_NANOS, bucket.tryAcquire(START));
+    }
+
+    @Test
+    void isIdleOnlyWhenFullAndUnused() {
+        TokenBucket bucket = new TokenBucket(10, 2, START);
+        long idle = 10 * TOKEN_NANOS;
+
+        assertFalse(bucket.isIdle(START + idle - 1, idle));
+        assertTrue(bucket.isIdle(START + idle, idle));
+
+        long used = START + idle;
+        assertEquals(0, bucket.tryAcquire(used, 2));
+        assertFalse(bucket.isIdle(used + idle - 1, idle));
+        assertTrue(bucket.isIdle(used + idle, idle));
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5, START));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0.5, START));
+    }
+}